@@ -0,0 +1,63 @@
+package com.projedata.bench;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link LoadTest} in-process: seeds a synthetic catalog into the test instance, whose database
+ * is the PostgreSQL that Dev Services starts with Testcontainers, replays the operation mix and
+ * prints the report. Fails on any error, and on the optional throughput and p99 thresholds.
+ *
+ * <pre>
+ * ./mvnw -Pbench test -Dtest=LoadHarnessTest -Dload.products=20000 -Dload.duration=60s \
+ *     -Dload.min-throughput=500 -Dload.max-p99=250
+ * </pre>
+ */
+@QuarkusTest
+class LoadHarnessTest {
+
+    @TestHTTPResource("/")
+    URI base;
+
+    @Test
+    void replaysMixAgainstSyntheticCatalog() throws Exception {
+        int products = Integer.getInteger("load.products", 2000);
+        int fanOut = Integer.getInteger("load.fanout", 8);
+        long seed = Long.getLong("load.seed", 42);
+        SyntheticCatalog catalog = new SyntheticCatalog(products, fanOut,
+                Integer.getInteger("load.materials", Math.max(fanOut, products / 5)),
+                SyntheticCatalog.StockDistribution.valueOf(System.getProperty("load.stock", "UNIFORM")), seed);
+        LoadTest.Settings settings = new LoadTest.Settings(
+                Integer.getInteger("load.concurrency", 50),
+                LoadTest.duration(System.getProperty("load.warmup", "5s")),
+                LoadTest.duration(System.getProperty("load.duration", "20s")),
+                LoadTest.mix(System.getProperty("load.mix", LoadTest.DEFAULT_MIX)),
+                fanOut,
+                seed);
+
+        HttpClient client = LoadTest.client();
+        LoadTest.seed(client, base, catalog);
+        LoadTest.Report report = LoadTest.run(client, base, settings);
+        report.print(System.out);
+
+        assertTrue(report.total().requests() > 0, "no request completed in the measured window");
+        assertEquals(0, report.total().errors(), "requests failed");
+        String minThroughput = System.getProperty("load.min-throughput");
+        if (minThroughput != null) {
+            assertTrue(report.total().throughput() >= Double.parseDouble(minThroughput),
+                    "throughput " + report.total().throughput() + " req/s below " + minThroughput);
+        }
+        String maxP99 = System.getProperty("load.max-p99");
+        if (maxP99 != null) {
+            assertTrue(report.total().percentileMillis(0.99) <= Double.parseDouble(maxP99),
+                    "p99 " + report.total().percentileMillis(0.99) + " ms above " + maxP99);
+        }
+    }
+}
@@ -0,0 +1,420 @@
+package com.projedata.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop HTTP load test against a running instance: {@code concurrency} clients each send
+ * the next request as soon as the previous one is answered, picking each operation at random
+ * from a weighted mix of catalog reads, BOM replacements, stock receipts and plan requests.
+ * Prints throughput and latency percentiles per operation for the measured window, after a
+ * warm-up.
+ *
+ * <p>With {@code --products} the instance is first seeded with a {@link SyntheticCatalog}
+ * through the CSV import endpoints. The catalog and the operation sequence of every client
+ * derive from {@code --seed}, so runs with the same options issue the same requests.
+ *
+ * <p>The clients run on virtual threads so they never become the bottleneck. To compare the
+ * server's execution modes, run it once with {@code REST_VIRTUAL_THREADS=false} and once with
+ * the default, against the same data. {@code LoadHarnessTest} runs the same load in-process
+ * against a Testcontainers PostgreSQL.
+ *
+ * <pre>
+ * ./mvnw -Pbench test-compile exec:exec@load-test \
+ *     -Dload.args="--url http://localhost:8080 --products 10000 --concurrency 400 --duration 30s"
+ * </pre>
+ */
+public final class LoadTest {
+
+    public static final String DEFAULT_MIX = "products=30,product=20,raw-materials=15,suggest=15,adjust=15,bom=5";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    /** One kind of request in the mix; {@code key} is its name in {@code --mix}. */
+    public enum Operation {
+        LIST_PRODUCTS("products"),
+        GET_PRODUCT("product"),
+        LIST_RAW_MATERIALS("raw-materials"),
+        SUGGEST("suggest"),
+        ADJUST_STOCK("adjust"),
+        REPLACE_BOM("bom");
+
+        final String key;
+
+        Operation(String key) {
+            this.key = key;
+        }
+
+        static Operation of(String key) {
+            for (Operation operation : values()) {
+                if (operation.key.equals(key)) {
+                    return operation;
+                }
+            }
+            throw new IllegalArgumentException("Unknown operation " + key + " in --mix");
+        }
+    }
+
+    /**
+     * @param mix    relative weight of each operation; operations left out are not sent
+     * @param fanOut raw materials in each BOM written by {@link Operation#REPLACE_BOM}
+     */
+    public record Settings(int concurrency, Duration warmup, Duration measured, Map<Operation, Integer> mix,
+                           int fanOut, long seed) {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        URI base = URI.create(options.getOrDefault("url", "http://localhost:8080"));
+        int products = Integer.parseInt(options.getOrDefault("products", "0"));
+        int fanOut = Integer.parseInt(options.getOrDefault("fanout", "8"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        Settings settings = new Settings(
+                Integer.parseInt(options.getOrDefault("concurrency", "200")),
+                duration(options.getOrDefault("warmup", "10s")),
+                duration(options.getOrDefault("duration", "30s")),
+                mix(options.getOrDefault("mix", DEFAULT_MIX)),
+                fanOut,
+                seed);
+
+        HttpClient client = client();
+        if (products > 0) {
+            SyntheticCatalog catalog = new SyntheticCatalog(products, fanOut,
+                    Integer.parseInt(options.getOrDefault("materials", Integer.toString(Math.max(fanOut, products / 5)))),
+                    SyntheticCatalog.StockDistribution.valueOf(options.getOrDefault("stock", "UNIFORM")), seed);
+            seed(client, base, catalog);
+        }
+        run(client, base, settings).print(System.out);
+    }
+
+    public static HttpClient client() {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /** Imports the catalog; codes make it idempotent, so re-seeding the same catalog is a no-op. */
+    public static void seed(HttpClient client, URI base, SyntheticCatalog catalog) throws Exception {
+        importCsv(client, base, "/api/import/raw-materials", catalog.rawMaterialsCsv());
+        importCsv(client, base, "/api/import/products", catalog.productsCsv());
+        importCsv(client, base, "/api/import/bom", catalog.bomCsv());
+    }
+
+    private static void importCsv(HttpClient client, URI base, String path, String csv) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve(path))
+                .header("Content-Type", "text/csv")
+                .header("Accept", "application/json")
+                .timeout(Duration.ofMinutes(5))
+                .POST(HttpRequest.BodyPublishers.ofString(csv))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonNode body = response.statusCode() == 200 ? JSON.readTree(response.body()) : null;
+        if (body == null || body.path("rejected").asInt() > 0) {
+            throw new IllegalStateException("Seeding " + path + " failed: " + response.statusCode() + " "
+                    + response.body());
+        }
+    }
+
+    /** Latencies of one operation, or of all of them. */
+    public record Result(long requests, long errors, Duration window, long[] latencies) {
+
+        public double throughput() {
+            return requests / (window.toNanos() / 1e9);
+        }
+
+        /** @param percentile in {@code [0, 1]}, over successful requests */
+        public double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(percentile * latencies.length) - 1;
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    public record Report(int concurrency, Result total, Map<Operation, Result> operations) {
+
+        public void print(PrintStream out) {
+            out.printf(Locale.ROOT, "concurrency=%d duration=%ss requests=%d errors=%d%n",
+                    concurrency, total.window().toSeconds(), total.requests(), total.errors());
+            out.printf(Locale.ROOT, "%-14s %10s %8s %10s %10s %10s%n", "operation", "req/s", "errors", "p50 ms",
+                    "p99 ms", "max ms");
+            for (Map.Entry<Operation, Result> entry : operations.entrySet()) {
+                print(out, entry.getKey().key, entry.getValue());
+            }
+            print(out, "total", total);
+        }
+
+        private static void print(PrintStream out, String name, Result result) {
+            out.printf(Locale.ROOT, "%-14s %10.1f %8d %10.2f %10.2f %10.2f%n", name, result.throughput(),
+                    result.errors(), result.percentileMillis(0.50), result.percentileMillis(0.99),
+                    result.percentileMillis(1.0));
+        }
+    }
+
+    public static Report run(HttpClient client, URI base, Settings settings) throws Exception {
+        Catalog catalog = new Catalog(ids(client, base, "/api/products"), ids(client, base, "/api/raw-materials"));
+        if (catalog.productIds.length == 0 || catalog.materialIds.length < settings.fanOut()) {
+            throw new IllegalStateException("The catalog needs products and at least " + settings.fanOut()
+                    + " raw materials; seed it with --products");
+        }
+        Operation[] picks = picks(settings.mix());
+
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup().toNanos();
+        long measureUntil = measureFrom + settings.measured().toNanos();
+        List<Future<Worker>> futures = new ArrayList<>(settings.concurrency());
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < settings.concurrency(); c++) {
+                Worker worker = new Worker(client, base, catalog, picks, settings.fanOut(),
+                        new Random(settings.seed() + c), measureFrom, measureUntil);
+                futures.add(executor.submit(worker::call));
+            }
+        }
+
+        List<Worker> workers = new ArrayList<>(settings.concurrency());
+        for (Future<Worker> future : futures) {
+            workers.add(future.get());
+        }
+        Map<Operation, Result> operations = new LinkedHashMap<>();
+        for (Operation operation : settings.mix().keySet()) {
+            operations.put(operation, merge(workers.stream().map(w -> w.stats.get(operation)).toList(),
+                    settings.measured()));
+        }
+        Result total = merge(workers.stream().flatMap(w -> w.stats.values().stream()).toList(), settings.measured());
+        return new Report(settings.concurrency(), total, operations);
+    }
+
+    private static Result merge(List<Stats> stats, Duration window) {
+        long requests = 0;
+        long errors = 0;
+        int latencyCount = 0;
+        for (Stats s : stats) {
+            requests += s.requests;
+            errors += s.errors;
+            latencyCount += s.latencyCount;
+        }
+        long[] latencies = new long[latencyCount];
+        int offset = 0;
+        for (Stats s : stats) {
+            System.arraycopy(s.latencies, 0, latencies, offset, s.latencyCount);
+            offset += s.latencyCount;
+        }
+        Arrays.sort(latencies);
+        return new Result(requests, errors, window, latencies);
+    }
+
+    private static long[] ids(HttpClient client, URI base, String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(base.resolve(path))
+                .header("Accept", "application/json")
+                .timeout(Duration.ofMinutes(1))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " failed: " + response.statusCode());
+        }
+        JsonNode rows = JSON.readTree(response.body());
+        long[] ids = new long[rows.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = rows.get(i).get("id").asLong();
+        }
+        return ids;
+    }
+
+    /** Each operation repeated by its weight, so a uniform pick follows the mix. */
+    private static Operation[] picks(Map<Operation, Integer> mix) {
+        List<Operation> picks = new ArrayList<>();
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                picks.add(entry.getKey());
+            }
+        }
+        if (picks.isEmpty()) {
+            throw new IllegalArgumentException("--mix has no operation with a positive weight");
+        }
+        return picks.toArray(Operation[]::new);
+    }
+
+    private record Catalog(long[] productIds, long[] materialIds) {
+    }
+
+    private static final class Stats {
+
+        long requests;
+        long errors;
+        long[] latencies = new long[1024];
+        int latencyCount;
+
+        void record(long latency) {
+            if (latencyCount == latencies.length) {
+                latencies = Arrays.copyOf(latencies, latencyCount * 2);
+            }
+            latencies[latencyCount++] = latency;
+        }
+    }
+
+    private static final class Worker {
+
+        private final HttpClient client;
+        private final URI base;
+        private final Catalog catalog;
+        private final Operation[] picks;
+        private final int fanOut;
+        private final Random random;
+        private final long measureFrom;
+        private final long measureUntil;
+        final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+
+        Worker(HttpClient client, URI base, Catalog catalog, Operation[] picks, int fanOut, Random random,
+               long measureFrom, long measureUntil) {
+            this.client = client;
+            this.base = base;
+            this.catalog = catalog;
+            this.picks = picks;
+            this.fanOut = fanOut;
+            this.random = random;
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+            for (Operation operation : picks) {
+                stats.putIfAbsent(operation, new Stats());
+            }
+        }
+
+        Worker call() {
+            long now = System.nanoTime();
+            while (now < measureUntil) {
+                Operation operation = picks[random.nextInt(picks.length)];
+                HttpRequest request = request(operation);
+                boolean ok;
+                try {
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    ok = response.statusCode() < 400;
+                } catch (Exception e) {
+                    ok = false;
+                }
+                long end = System.nanoTime();
+                if (now >= measureFrom && end <= measureUntil) {
+                    Stats s = stats.get(operation);
+                    s.requests++;
+                    if (ok) {
+                        s.record(end - now);
+                    } else {
+                        s.errors++;
+                    }
+                }
+                now = end;
+            }
+            return this;
+        }
+
+        private HttpRequest request(Operation operation) {
+            return switch (operation) {
+                case LIST_PRODUCTS -> get("/api/products?limit=50&sort=value&order=desc");
+                case GET_PRODUCT -> get("/api/products/" + pick(catalog.productIds));
+                case LIST_RAW_MATERIALS -> get("/api/raw-materials?limit=50");
+                case SUGGEST -> get("/api/production-planning/suggestions");
+                case ADJUST_STOCK -> send("POST", "/api/raw-materials/" + pick(catalog.materialIds) + "/adjust",
+                        "{\"delta\": " + (1 + random.nextInt(100)) + ", \"reference\": \"Load test\"}");
+                case REPLACE_BOM -> send("PUT", "/api/products/" + pick(catalog.productIds) + "/raw-materials",
+                        bom());
+            };
+        }
+
+        private String bom() {
+            // Distinct materials, like SyntheticCatalog: a random start and a stride that cannot wrap
+            long[] materialIds = catalog.materialIds;
+            int first = random.nextInt(materialIds.length);
+            int stride = 1 + random.nextInt(Math.max(1, materialIds.length / fanOut));
+            StringBuilder json = new StringBuilder("[");
+            for (int i = 0; i < fanOut; i++) {
+                if (i > 0) {
+                    json.append(',');
+                }
+                json.append("{\"rawMaterialId\": ").append(materialIds[(first + i * stride) % materialIds.length])
+                        .append(", \"requiredQuantity\": ").append(1 + random.nextInt(5)).append('}');
+            }
+            return json.append(']').toString();
+        }
+
+        private long pick(long[] ids) {
+            return ids[random.nextInt(ids.length)];
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(base.resolve(path))
+                    .header("Accept", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+        }
+
+        private HttpRequest send(String method, String path, String body) {
+            return HttpRequest.newBuilder(base.resolve(path))
+                    .header("Accept", "application/json")
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .method(method, HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    }
+
+    /** Parses {@code products=30,suggest=10,...}; operations weighted zero are dropped. */
+    public static Map<Operation, Integer> mix(String value) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight in --mix, got " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                mix.put(Operation.of(parts[0].trim()), weight);
+            }
+        }
+        return mix;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    /** Parses {@code 30s}, {@code 2m} or an ISO-8601 duration. */
+    public static Duration duration(String value) {
+        if (value.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(value.substring(0, value.length() - 2)));
+        }
+        if (value.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        if (value.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(value.substring(0, value.length() - 1)));
+        }
+        return Duration.parse(value);
+    }
+}
@@ -0,0 +1,142 @@
+package com.projedata.bench;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.projedata.dto.BomItemResponse;
+import com.projedata.dto.ProductResponse;
+import com.projedata.dto.ProductionSuggestionResponse;
+import com.projedata.dto.RawMaterialResponse;
+import com.projedata.entity.Product;
+import com.projedata.entity.ProductRawMaterial;
+import com.projedata.entity.RawMaterial;
+import com.projedata.service.planning.GreedyPlanner;
+import com.projedata.service.planning.PlanningModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The wire formats the resources negotiate, on the list payloads of the busiest endpoints: encoding
+ * and decoding cost per format, plus the encoding followed by gzip as HTTP compression applies it.
+ * Payload sizes, raw and gzipped, are printed once per trial since JMH only reports times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"json", "smile", "cbor"})
+    String format;
+
+    @Param({"products", "raw-materials", "bom", "suggestion"})
+    String payload;
+
+    @Param({"10000"})
+    int products;
+
+    @Param({"5"})
+    int fanOut;
+
+    @Param({"2000"})
+    int materials;
+
+    private ObjectMapper mapper;
+    private Object value;
+    private TypeReference<?> type;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        // Same construction as BinaryJsonProvider: a copy of the JSON mapper over another factory
+        ObjectMapper json = new ObjectMapper();
+        mapper = switch (format) {
+            case "json" -> json;
+            case "smile" -> json.copyWith(new SmileFactory());
+            case "cbor" -> json.copyWith(new CBORFactory());
+            default -> throw new IllegalArgumentException("Unknown format: " + format);
+        };
+
+        SyntheticCatalog generator = new SyntheticCatalog(products, fanOut, materials,
+                SyntheticCatalog.StockDistribution.UNIFORM, 42);
+        List<Product> catalog = generator.products();
+        switch (payload) {
+            case "products" -> {
+                value = catalog.stream().map(ProductResponse::from).toList();
+                type = new TypeReference<List<ProductResponse>>() { };
+            }
+            case "raw-materials" -> {
+                Map<Long, RawMaterial> rawMaterials = new LinkedHashMap<>();
+                for (Product product : catalog) {
+                    for (ProductRawMaterial item : product.rawMaterials) {
+                        rawMaterials.putIfAbsent(item.rawMaterial.id, item.rawMaterial);
+                    }
+                }
+                value = rawMaterials.values().stream().map(RawMaterialResponse::from).toList();
+                type = new TypeReference<List<RawMaterialResponse>>() { };
+            }
+            case "bom" -> {
+                value = catalog.stream()
+                        .flatMap(product -> product.rawMaterials.stream())
+                        .map(BomItemResponse::from)
+                        .toList();
+                type = new TypeReference<List<BomItemResponse>>() { };
+            }
+            case "suggestion" -> {
+                PlanningModel model = generator.model();
+                long[] quantities = new long[model.productCount()];
+                GreedyPlanner.allocate(model, model.stock.clone(), quantities);
+                value = ProductionSuggestionResponse.from(model, quantities);
+                type = new TypeReference<ProductionSuggestionResponse>() { };
+            }
+            default -> throw new IllegalArgumentException("Unknown payload: " + payload);
+        }
+
+        encoded = mapper.writeValueAsBytes(value);
+        System.out.printf("%n%s as %s: %,d bytes, %,d gzipped%n", payload, format, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return mapper.writeValueAsBytes(value);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return mapper.readValue(encoded, type);
+    }
+
+    @Benchmark
+    public byte[] serializeGzipped() throws IOException {
+        return gzip(mapper.writeValueAsBytes(value));
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(bytes);
+        }
+        return buffer.toByteArray();
+    }
+}
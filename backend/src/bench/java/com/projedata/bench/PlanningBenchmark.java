@@ -0,0 +1,168 @@
+package com.projedata.bench;
+
+import com.projedata.service.planning.GreedyPlanner;
+import com.projedata.service.planning.HorizonPlanner;
+import com.projedata.service.planning.PlanState;
+import com.projedata.service.planning.PlanningModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The planning algorithms on a compiled synthetic catalog, without Hibernate: compiling the
+ * projection rows, a full greedy pass, an incremental re-plan after one stock change, and the
+ * BigDecimal/HashMap loop the compiled model replaced, kept as a baseline. The 52-week horizon
+ * sweep is measured against one full greedy pass per week.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PlanningBenchmark {
+
+    @Param({"1000", "10000"})
+    int products;
+
+    @Param({"5", "20"})
+    int fanOut;
+
+    @Param({"2000"})
+    int materials;
+
+    @Param({"SCARCE", "UNIFORM", "SKEWED"})
+    SyntheticCatalog.StockDistribution stock;
+
+    private PlanningModel model;
+    private List<PlanningModel.ProductRow> productRows;
+    private List<PlanningModel.BomRow> bomRows;
+    private List<PlanningModel.MaterialRow> materialRows;
+    private long[] remaining;
+    private long[] quantities;
+
+    private PlanState state;
+    private long changedMaterial;
+    private long[] stockValues;
+    private int toggle;
+
+    private static final int HORIZON_PERIODS = 52;
+    private HorizonPlanner.Receipts receipts;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        model = new SyntheticCatalog(products, fanOut, materials, stock, 42).model();
+        remaining = new long[model.materialCount()];
+        quantities = new long[model.productCount()];
+
+        productRows = new ArrayList<>(model.productCount());
+        bomRows = new ArrayList<>(model.bomMaterial.length);
+        for (int p = 0; p < model.productCount(); p++) {
+            productRows.add(new PlanningModel.ProductRow(model.productIds[p], model.productNames[p], model.productValues[p]));
+            for (int row = model.bomStart[p]; row < model.bomStart[p + 1]; row++) {
+                bomRows.add(new PlanningModel.BomRow(model.productIds[p], model.materialIds[model.bomMaterial[row]],
+                        BigDecimal.valueOf(model.bomRequired[row], PlanningModel.QUANTITY_SCALE)));
+            }
+        }
+        materialRows = new ArrayList<>(model.materialCount());
+        for (int m = 0; m < model.materialCount(); m++) {
+            materialRows.add(new PlanningModel.MaterialRow(model.materialIds[m],
+                    BigDecimal.valueOf(model.stock[m], PlanningModel.QUANTITY_SCALE)));
+        }
+
+        // Incremental case: a material first used half-way down the plan flips between two stock levels
+        state = new PlanState(model);
+        int middle = model.bomMaterial[model.bomStart[model.productCount() / 2]];
+        changedMaterial = model.materialIds[middle];
+        stockValues = new long[] {model.stock[middle], model.stock[middle] / 2};
+
+        // Horizon case: every week a random 5% of the materials receive up to a hundred units
+        Random random = new Random(42);
+        int perPeriod = Math.max(1, model.materialCount() / 20);
+        int[] period = new int[HORIZON_PERIODS * perPeriod];
+        int[] material = new int[period.length];
+        long[] quantity = new long[period.length];
+        for (int i = 0; i < period.length; i++) {
+            period[i] = i / perPeriod;
+            material[i] = random.nextInt(model.materialCount());
+            quantity[i] = (1 + random.nextInt(100)) * 10_000L;
+        }
+        receipts = HorizonPlanner.Receipts.of(HORIZON_PERIODS, period, material, quantity);
+    }
+
+    @Benchmark
+    public PlanningModel compile() {
+        return PlanningModel.compile(productRows, bomRows, materialRows);
+    }
+
+    @Benchmark
+    public long[] greedy() {
+        System.arraycopy(model.stock, 0, remaining, 0, remaining.length);
+        GreedyPlanner.allocate(model, remaining, quantities);
+        return quantities;
+    }
+
+    @Benchmark
+    public int incrementalStockChange() {
+        toggle ^= 1;
+        return state.update(Map.of(changedMaterial, stockValues[toggle]), Map.of());
+    }
+
+    @Benchmark
+    public List<HorizonPlanner.Period> horizonSweep() {
+        return HorizonPlanner.plan(model, model.stock.clone(), receipts);
+    }
+
+    @Benchmark
+    public long[] horizonFullPasses() {
+        System.arraycopy(model.stock, 0, remaining, 0, remaining.length);
+        for (int t = 0; t < HORIZON_PERIODS; t++) {
+            for (int i = receipts.start()[t]; i < receipts.start()[t + 1]; i++) {
+                remaining[receipts.material()[i]] += receipts.quantity()[i];
+            }
+            GreedyPlanner.allocate(model, remaining, quantities);
+        }
+        return quantities;
+    }
+
+    @Benchmark
+    public Map<Long, BigDecimal> bigDecimalBaseline() {
+        Map<Long, BigDecimal> stockMap = new HashMap<>();
+        for (int m = 0; m < model.materialCount(); m++) {
+            stockMap.put(model.materialIds[m], BigDecimal.valueOf(model.stock[m], PlanningModel.QUANTITY_SCALE));
+        }
+        for (int p = 0; p < model.productCount(); p++) {
+            long qty = Long.MAX_VALUE;
+            for (int row = model.bomStart[p]; row < model.bomStart[p + 1]; row++) {
+                BigDecimal available = stockMap.getOrDefault(model.materialIds[model.bomMaterial[row]], BigDecimal.ZERO);
+                BigDecimal required = BigDecimal.valueOf(model.bomRequired[row], PlanningModel.QUANTITY_SCALE);
+                qty = Math.min(qty, available.divideToIntegralValue(required).longValue());
+            }
+            if (qty > 0) {
+                for (int row = model.bomStart[p]; row < model.bomStart[p + 1]; row++) {
+                    BigDecimal required = BigDecimal.valueOf(model.bomRequired[row], PlanningModel.QUANTITY_SCALE);
+                    stockMap.merge(model.materialIds[model.bomMaterial[row]],
+                            required.multiply(BigDecimal.valueOf(qty)), BigDecimal::subtract);
+                }
+            }
+        }
+        return stockMap;
+    }
+}
@@ -0,0 +1,86 @@
+package com.projedata.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projedata.dto.ProductDetailResponse;
+import com.projedata.dto.ProductionSuggestionResponse;
+import com.projedata.entity.Product;
+import com.projedata.service.planning.GreedyPlanner;
+import com.projedata.service.planning.PlanningModel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The response side of the API: the {@code from} mappers and Jackson serialization of the
+ * production suggestion and of the product detail list, on the same synthetic catalog.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1000", "10000"})
+    int products;
+
+    @Param({"5", "20"})
+    int fanOut;
+
+    @Param({"2000"})
+    int materials;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private PlanningModel model;
+    private long[] quantities;
+    private ProductionSuggestionResponse suggestion;
+    private List<Product> catalog;
+    private List<ProductDetailResponse> details;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SyntheticCatalog generator = new SyntheticCatalog(products, fanOut, materials,
+                SyntheticCatalog.StockDistribution.UNIFORM, 42);
+        model = generator.model();
+        quantities = new long[model.productCount()];
+        GreedyPlanner.allocate(model, model.stock.clone(), quantities);
+        suggestion = ProductionSuggestionResponse.from(model, quantities);
+
+        catalog = generator.products();
+        details = catalog.stream().map(ProductDetailResponse::from).toList();
+    }
+
+    @Benchmark
+    public ProductionSuggestionResponse mapSuggestion() {
+        return ProductionSuggestionResponse.from(model, quantities);
+    }
+
+    @Benchmark
+    public byte[] serializeSuggestion() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(suggestion);
+    }
+
+    @Benchmark
+    public List<ProductDetailResponse> mapProductDetails() {
+        return catalog.stream().map(ProductDetailResponse::from).toList();
+    }
+
+    @Benchmark
+    public byte[] serializeProductDetails() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(details);
+    }
+}
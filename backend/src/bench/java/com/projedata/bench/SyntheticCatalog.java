@@ -0,0 +1,168 @@
+package com.projedata.bench;
+
+import com.projedata.entity.Product;
+import com.projedata.entity.ProductRawMaterial;
+import com.projedata.entity.RawMaterial;
+import com.projedata.service.planning.PlanningModel;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Reproducible catalog for the benchmarks, built straight into the planning model and into
+ * detached entities so nothing touches Hibernate or the database. The load test seeds the same
+ * catalog into a running instance through the CSV import endpoints.
+ */
+public final class SyntheticCatalog {
+
+    /** How much stock each material gets relative to what a single product needs. */
+    public enum StockDistribution {
+        /** Most materials cover only a handful of units: the plan is bottlenecked early. */
+        SCARCE,
+        /** Stock uniformly spread from empty to a few thousand units. */
+        UNIFORM,
+        /** A few materials hold most of the stock, the rest are nearly empty. */
+        SKEWED
+    }
+
+    private final int products;
+    private final int fanOut;
+    private final int materials;
+    private final StockDistribution distribution;
+    private final long seed;
+
+    public SyntheticCatalog(int products, int fanOut, int materials, StockDistribution distribution, long seed) {
+        this.products = products;
+        this.fanOut = fanOut;
+        this.materials = materials;
+        this.distribution = distribution;
+        this.seed = seed;
+    }
+
+    /** The catalog compiled as {@code PlanningModel.compile} would from the same rows. */
+    public PlanningModel model() {
+        Random random = new Random(seed);
+        int bomRows = products * fanOut;
+        long[] productIds = new long[products];
+        String[] productNames = new String[products];
+        BigDecimal[] productValues = new BigDecimal[products];
+        int[] bomStart = new int[products + 1];
+        int[] bomMaterial = new int[bomRows];
+        long[] bomRequired = new long[bomRows];
+
+        // Values descending, like the ORDER BY in the planning query
+        long cents = 100L * products + 10_000;
+        for (int p = 0; p < products; p++) {
+            productIds[p] = p + 1;
+            productNames[p] = "Product " + (p + 1);
+            cents -= random.nextInt(100);
+            productValues[p] = BigDecimal.valueOf(Math.max(cents, 1), 2);
+            bomStart[p + 1] = bomStart[p] + fanOut;
+            // Distinct materials per product, as the composite key requires
+            int first = random.nextInt(materials);
+            int stride = 1 + random.nextInt(Math.max(1, materials / Math.max(1, fanOut)));
+            for (int i = 0; i < fanOut; i++) {
+                int row = bomStart[p] + i;
+                bomMaterial[row] = (first + i * stride) % materials;
+                bomRequired[row] = 1 + random.nextInt(50_000);
+            }
+        }
+
+        long[] materialIds = new long[materials];
+        long[] stock = new long[materials];
+        for (int m = 0; m < materials; m++) {
+            materialIds[m] = m + 1;
+            stock[m] = stockUnits(random) * 10_000L;
+        }
+        return new PlanningModel(productIds, productNames, productValues,
+                bomStart, bomMaterial, bomRequired, materialIds, stock);
+    }
+
+    /** The same catalog as detached entities with their BOM collections filled in. */
+    public List<Product> products() {
+        PlanningModel model = model();
+        List<RawMaterial> rawMaterials = new ArrayList<>(materials);
+        for (int m = 0; m < materials; m++) {
+            RawMaterial rawMaterial = new RawMaterial();
+            rawMaterial.id = model.materialIds[m];
+            rawMaterial.name = "Raw material " + rawMaterial.id;
+            rawMaterial.stockQuantity = BigDecimal.valueOf(model.stock[m], PlanningModel.QUANTITY_SCALE);
+            rawMaterials.add(rawMaterial);
+        }
+
+        List<Product> result = new ArrayList<>(products);
+        for (int p = 0; p < products; p++) {
+            Product product = new Product();
+            product.id = model.productIds[p];
+            product.name = model.productNames[p];
+            product.value = model.productValues[p];
+            for (int row = model.bomStart[p]; row < model.bomStart[p + 1]; row++) {
+                ProductRawMaterial item = new ProductRawMaterial();
+                item.product = product;
+                item.rawMaterial = rawMaterials.get(model.bomMaterial[row]);
+                item.id.productId = product.id;
+                item.id.rawMaterialId = item.rawMaterial.id;
+                item.requiredQuantity = BigDecimal.valueOf(model.bomRequired[row], PlanningModel.QUANTITY_SCALE);
+                product.rawMaterials.add(item);
+            }
+            result.add(product);
+        }
+        return result;
+    }
+
+    /** CSV for {@code POST /api/import/raw-materials}; codes are {@code SYN-M<id>}. */
+    public String rawMaterialsCsv() {
+        PlanningModel model = model();
+        StringBuilder csv = new StringBuilder("code,name,stockQuantity\n");
+        for (int m = 0; m < materials; m++) {
+            csv.append(materialCode(model, m)).append(",Raw material ").append(model.materialIds[m]).append(',')
+                    .append(BigDecimal.valueOf(model.stock[m], PlanningModel.QUANTITY_SCALE).toPlainString())
+                    .append('\n');
+        }
+        return csv.toString();
+    }
+
+    /** CSV for {@code POST /api/import/products}; codes are {@code SYN-P<id>}. */
+    public String productsCsv() {
+        PlanningModel model = model();
+        StringBuilder csv = new StringBuilder("code,name,value\n");
+        for (int p = 0; p < products; p++) {
+            csv.append(productCode(model, p)).append(',').append(model.productNames[p]).append(',')
+                    .append(model.productValues[p].toPlainString()).append('\n');
+        }
+        return csv.toString();
+    }
+
+    /** CSV for {@code POST /api/import/bom}, referencing the codes of the two other files. */
+    public String bomCsv() {
+        PlanningModel model = model();
+        StringBuilder csv = new StringBuilder("product,rawMaterial,requiredQuantity\n");
+        for (int p = 0; p < products; p++) {
+            for (int row = model.bomStart[p]; row < model.bomStart[p + 1]; row++) {
+                csv.append(productCode(model, p)).append(',').append(materialCode(model, model.bomMaterial[row]))
+                        .append(',')
+                        .append(BigDecimal.valueOf(model.bomRequired[row], PlanningModel.QUANTITY_SCALE).toPlainString())
+                        .append('\n');
+            }
+        }
+        return csv.toString();
+    }
+
+    private static String productCode(PlanningModel model, int product) {
+        return "SYN-P" + model.productIds[product];
+    }
+
+    private static String materialCode(PlanningModel model, int material) {
+        return "SYN-M" + model.materialIds[material];
+    }
+
+    private long stockUnits(Random random) {
+        return switch (distribution) {
+            case SCARCE -> random.nextInt(20);
+            case UNIFORM -> random.nextInt(10_000);
+            case SKEWED -> random.nextInt(10) == 0 ? 50_000 + random.nextInt(50_000) : random.nextInt(50);
+        };
+    }
+}
@@ -0,0 +1,82 @@
+package com.projedata;
+
+import com.projedata.dto.BomItemRequest;
+import com.projedata.dto.BomItemResponse;
+import com.projedata.dto.CacheStatsResponse;
+import com.projedata.dto.ComponentItemRequest;
+import com.projedata.dto.ComponentItemResponse;
+import com.projedata.dto.HorizonPlanResponse;
+import com.projedata.dto.ImportResponse;
+import com.projedata.dto.PlanCommitRequest;
+import com.projedata.dto.PlanDeltaResponse;
+import com.projedata.dto.ProductCapacityResponse;
+import com.projedata.dto.ProductDetailResponse;
+import com.projedata.dto.ProductRequest;
+import com.projedata.dto.ProductResponse;
+import com.projedata.dto.ProductionSuggestionResponse;
+import com.projedata.dto.RawMaterialRequest;
+import com.projedata.dto.RawMaterialResponse;
+import com.projedata.dto.ScenarioBatchRequest;
+import com.projedata.dto.ScenarioRequest;
+import com.projedata.dto.ScenarioResponse;
+import com.projedata.dto.ScheduledReceiptRequest;
+import com.projedata.dto.ScheduledReceiptResponse;
+import com.projedata.dto.StockAdjustmentBatchRequest;
+import com.projedata.dto.StockAdjustmentRequest;
+import com.projedata.dto.StockLevelResponse;
+import com.projedata.dto.StockMovementResponse;
+import com.projedata.service.importing.CatalogImportService;
+import com.projedata.service.planning.PlanningModel;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Reflection metadata for the native image. Quarkus registers the entities and the types that
+ * appear directly in resource signatures; this covers the rest: DTOs reached only through
+ * {@code Response} entities, generic lists or the NDJSON writer, their nested classes, and the
+ * records Panache instantiates for {@code project(...)} queries.
+ */
+@RegisterForReflection(targets = {
+        BomItemRequest.class,
+        BomItemResponse.class,
+        CacheStatsResponse.class,
+        ComponentItemRequest.class,
+        ComponentItemResponse.class,
+        HorizonPlanResponse.class,
+        HorizonPlanResponse.Period.class,
+        ImportResponse.class,
+        ImportResponse.RowError.class,
+        PlanCommitRequest.class,
+        PlanCommitRequest.Item.class,
+        PlanDeltaResponse.class,
+        ProductCapacityResponse.class,
+        ProductDetailResponse.class,
+        ProductRequest.class,
+        ProductResponse.class,
+        ProductionSuggestionResponse.class,
+        ProductionSuggestionResponse.SuggestionItem.class,
+        ProductionSuggestionResponse.SuggestionTotal.class,
+        RawMaterialRequest.class,
+        RawMaterialResponse.class,
+        ScenarioBatchRequest.class,
+        ScenarioRequest.class,
+        ScenarioRequest.StockOverride.class,
+        ScenarioResponse.class,
+        ScheduledReceiptRequest.class,
+        ScheduledReceiptResponse.class,
+        StockAdjustmentBatchRequest.class,
+        StockAdjustmentBatchRequest.Item.class,
+        StockAdjustmentRequest.class,
+        StockLevelResponse.class,
+        StockMovementResponse.class,
+        PlanningModel.ProductRow.class,
+        PlanningModel.BomRow.class,
+        PlanningModel.ComponentRow.class,
+        PlanningModel.MaterialRow.class,
+        PlanningModel.ReceiptRow.class,
+        CatalogImportService.Reference.class
+})
+public final class NativeImageReflection {
+
+    private NativeImageReflection() {
+    }
+}
@@ -0,0 +1,23 @@
+package com.projedata.dto;
+
+import org.hibernate.stat.CacheRegionStatistics;
+
+public class CacheStatsResponse {
+
+    public String region;
+    public long hitCount;
+    public long missCount;
+    public long putCount;
+    /** Entries currently held, or -1 when the region does not report it. */
+    public long size;
+
+    public static CacheStatsResponse from(String region, CacheRegionStatistics statistics) {
+        CacheStatsResponse dto = new CacheStatsResponse();
+        dto.region = region;
+        dto.hitCount = statistics.getHitCount();
+        dto.missCount = statistics.getMissCount();
+        dto.putCount = statistics.getPutCount();
+        dto.size = statistics.getElementCountInMemory();
+        return dto;
+    }
+}
@@ -0,0 +1,18 @@
+package com.projedata.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+
+public class ComponentItemRequest {
+
+    @NotNull
+    public Long componentId;
+
+    @NotNull
+    @DecimalMin("0.0001")
+    @Digits(integer = 11, fraction = 4)
+    public BigDecimal requiredQuantity;
+}
@@ -0,0 +1,20 @@
+package com.projedata.dto;
+
+import com.projedata.entity.ProductComponent;
+
+import java.math.BigDecimal;
+
+public class ComponentItemResponse {
+
+    public Long componentId;
+    public String componentName;
+    public BigDecimal requiredQuantity;
+
+    public static ComponentItemResponse from(ProductComponent entity) {
+        ComponentItemResponse dto = new ComponentItemResponse();
+        dto.componentId = entity.component.id;
+        dto.componentName = entity.component.name;
+        dto.requiredQuantity = entity.requiredQuantity;
+        return dto;
+    }
+}
@@ -0,0 +1,58 @@
+package com.projedata.dto;
+
+import com.projedata.dto.ProductionSuggestionResponse.SuggestionItem;
+import com.projedata.service.planning.HorizonPlanner;
+import com.projedata.service.planning.PlanningModel;
+import com.projedata.service.planning.PlanningPeriod;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class HorizonPlanResponse {
+
+    public LocalDate start;
+    public PlanningPeriod period;
+    public List<Period> periods;
+    public BigDecimal grandTotalValue;
+
+    public static class Period {
+        public int index;
+        public LocalDate start;
+        /** Exclusive: the start of the next period. */
+        public LocalDate end;
+        /** Products built in the period, in value order; products that build nothing are left out. */
+        public List<SuggestionItem> items;
+        public BigDecimal totalValue;
+    }
+
+    public static HorizonPlanResponse from(PlanningModel model, LocalDate start, PlanningPeriod period,
+                                           List<HorizonPlanner.Period> plan) {
+        List<Period> periods = new ArrayList<>(plan.size());
+        BigDecimal grandTotal = BigDecimal.ZERO;
+        for (int t = 0; t < plan.size(); t++) {
+            HorizonPlanner.Period planned = plan.get(t);
+            Period dto = new Period();
+            dto.index = t;
+            dto.start = period.start(start, t);
+            dto.end = period.start(start, t + 1);
+            dto.items = new ArrayList<>(planned.products().length);
+            dto.totalValue = BigDecimal.ZERO;
+            for (int i = 0; i < planned.products().length; i++) {
+                SuggestionItem item = SuggestionItem.from(model, planned.products()[i], planned.quantities()[i]);
+                dto.totalValue = dto.totalValue.add(item.totalValue);
+                dto.items.add(item);
+            }
+            grandTotal = grandTotal.add(dto.totalValue);
+            periods.add(dto);
+        }
+
+        HorizonPlanResponse response = new HorizonPlanResponse();
+        response.start = start;
+        response.period = period;
+        response.periods = periods;
+        response.grandTotalValue = grandTotal;
+        return response;
+    }
+}
@@ -0,0 +1,27 @@
+package com.projedata.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportResponse {
+
+    /** Rows inserted or, when their key already existed, updated. */
+    public long imported;
+    public long rejected;
+    /** The first rejected rows; {@code rejected} counts all of them. */
+    public List<RowError> errors = new ArrayList<>();
+
+    public static class RowError {
+
+        public long line;
+        public String message;
+
+        public RowError() {
+        }
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+    }
+}
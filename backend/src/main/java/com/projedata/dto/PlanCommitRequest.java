@@ -0,0 +1,25 @@
+package com.projedata.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public class PlanCommitRequest {
+
+    @NotEmpty
+    @Valid
+    public List<Item> items;
+
+    public static class Item {
+
+        @NotNull
+        public Long productId;
+
+        @NotNull
+        @Min(1)
+        public Long quantity;
+    }
+}
@@ -0,0 +1,35 @@
+package com.projedata.dto;
+
+import com.projedata.dto.ProductionSuggestionResponse.SuggestionItem;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/** One event of the plan stream; a {@code SNAPSHOT} lists every item, a {@code DELTA} only the changed ones. */
+public class PlanDeltaResponse {
+
+    public enum Type {
+        SNAPSHOT,
+        DELTA
+    }
+
+    public Type type;
+    /** ETag of the plan this event brings the subscriber up to, as sent by {@code /suggestions}. */
+    public String version;
+    /** Items that are new or whose name, value, producible quantity or total value changed. */
+    public List<SuggestionItem> changed;
+    /** Products that left the plan: deleted, or no longer having a BOM. */
+    public List<Long> removed;
+    public BigDecimal grandTotalValue;
+
+    public static PlanDeltaResponse of(Type type, String version, List<SuggestionItem> changed,
+                                       List<Long> removed, BigDecimal grandTotalValue) {
+        PlanDeltaResponse dto = new PlanDeltaResponse();
+        dto.type = type;
+        dto.version = version;
+        dto.changed = changed;
+        dto.removed = removed;
+        dto.grandTotalValue = grandTotalValue;
+        return dto;
+    }
+}
@@ -0,0 +1,15 @@
+package com.projedata.dto;
+
+/**
+ * Units the current stock allows of one product, on its own: other products do not compete for
+ * the stock, unlike in the production plan.
+ */
+public class ProductCapacityResponse {
+
+    public Long productId;
+    public String name;
+    /** {@code null} when the product has no BOM. */
+    public Long capacity;
+    /** The raw material that runs out first; {@code null} when the product has no BOM. */
+    public Long limitingRawMaterialId;
+}
@@ -9,17 +9,23 @@ public class ProductDetailResponse {
 
     public Long id;
     public String name;
+    public String code;
     public BigDecimal value;
     public List<BomItemResponse> rawMaterials;
+    public List<ComponentItemResponse> components;
 
     public static ProductDetailResponse from(Product entity) {
         ProductDetailResponse dto = new ProductDetailResponse();
         dto.id = entity.id;
         dto.name = entity.name;
+        dto.code = entity.code;
         dto.value = entity.value;
         dto.rawMaterials = entity.rawMaterials.stream()
                 .map(BomItemResponse::from)
                 .toList();
+        dto.components = entity.components.stream()
+                .map(ComponentItemResponse::from)
+                .toList();
         return dto;
     }
 }
@@ -3,6 +3,7 @@ package com.projedata.dto;
 import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
 
@@ -11,6 +12,9 @@ public class ProductRequest {
     @NotBlank
     public String name;
 
+    @Size(max = 64)
+    public String code;
+
     @NotNull
     @DecimalMin("0.01")
     public BigDecimal value;
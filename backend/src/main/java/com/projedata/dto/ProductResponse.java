@@ -8,12 +8,25 @@ public class ProductResponse {
 
     public Long id;
     public String name;
+    public String code;
     public BigDecimal value;
 
+    public ProductResponse() {
+    }
+
+    /** Constructor projection used by the list queries, which skip entity hydration. */
+    public ProductResponse(Long id, String name, String code, BigDecimal value) {
+        this.id = id;
+        this.name = name;
+        this.code = code;
+        this.value = value;
+    }
+
     public static ProductResponse from(Product entity) {
         ProductResponse dto = new ProductResponse();
         dto.id = entity.id;
         dto.name = entity.name;
+        dto.code = entity.code;
         dto.value = entity.value;
         return dto;
     }
@@ -1,6 +1,10 @@
 package com.projedata.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.projedata.service.planning.PlanningModel;
+
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.List;
 
 public class ProductionSuggestionResponse {
@@ -8,11 +12,52 @@ public class ProductionSuggestionResponse {
     public List<SuggestionItem> suggestions;
     public BigDecimal grandTotalValue;
 
+    // Only filled in by the optimal mode; omitted from greedy responses
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Boolean optimal;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public BigDecimal optimalityGap;
+
+    /** Maps a plan over the compiled catalog; products without a BOM are left out. */
+    public static ProductionSuggestionResponse from(PlanningModel model, long[] quantities) {
+        List<SuggestionItem> suggestions = new ArrayList<>(model.productCount());
+        BigDecimal grandTotal = BigDecimal.ZERO;
+
+        for (int p = 0; p < model.productCount(); p++) {
+            if (!model.hasBom(p)) {
+                continue;
+            }
+            SuggestionItem item = SuggestionItem.from(model, p, quantities[p]);
+            grandTotal = grandTotal.add(item.totalValue);
+            suggestions.add(item);
+        }
+
+        ProductionSuggestionResponse dto = new ProductionSuggestionResponse();
+        dto.suggestions = suggestions;
+        dto.grandTotalValue = grandTotal;
+        return dto;
+    }
+
     public static class SuggestionItem {
         public Long productId;
         public String productName;
         public BigDecimal productValue;
         public long producibleQuantity;
         public BigDecimal totalValue;
+
+        public static SuggestionItem from(PlanningModel model, int product, long quantity) {
+            SuggestionItem item = new SuggestionItem();
+            item.productId = model.productIds[product];
+            item.productName = model.productNames[product];
+            item.productValue = model.productValues[product];
+            item.producibleQuantity = quantity;
+            item.totalValue = item.productValue.multiply(BigDecimal.valueOf(quantity));
+            return item;
+        }
+    }
+
+    /** Trailing record of the NDJSON stream, sent after the last item. */
+    public static class SuggestionTotal {
+        public BigDecimal grandTotalValue;
     }
 }
@@ -8,12 +8,25 @@ public class RawMaterialResponse {
 
     public Long id;
     public String name;
+    public String code;
     public BigDecimal stockQuantity;
 
+    public RawMaterialResponse() {
+    }
+
+    /** Constructor projection used by the list queries, which skip entity hydration. */
+    public RawMaterialResponse(Long id, String name, String code, BigDecimal stockQuantity) {
+        this.id = id;
+        this.name = name;
+        this.code = code;
+        this.stockQuantity = stockQuantity;
+    }
+
     public static RawMaterialResponse from(RawMaterial entity) {
         RawMaterialResponse dto = new RawMaterialResponse();
         dto.id = entity.id;
         dto.name = entity.name;
+        dto.code = entity.code;
         dto.stockQuantity = entity.stockQuantity;
         return dto;
     }
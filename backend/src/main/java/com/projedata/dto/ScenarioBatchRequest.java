@@ -0,0 +1,15 @@
+package com.projedata.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class ScenarioBatchRequest {
+
+    @NotEmpty
+    @Size(max = 100)
+    @Valid
+    public List<ScenarioRequest> scenarios;
+}
@@ -0,0 +1,32 @@
+package com.projedata.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ScenarioRequest {
+
+    @NotBlank
+    public String name;
+
+    @NotNull
+    @Valid
+    public List<StockOverride> stockOverrides = new ArrayList<>();
+
+    public static class StockOverride {
+
+        @NotNull
+        public Long rawMaterialId;
+
+        @NotNull
+        @DecimalMin("0.0")
+        @Digits(integer = 11, fraction = 4)
+        public BigDecimal stockQuantity;
+    }
+}
@@ -0,0 +1,7 @@
+package com.projedata.dto;
+
+public class ScenarioResponse {
+
+    public String name;
+    public ProductionSuggestionResponse plan;
+}
@@ -0,0 +1,23 @@
+package com.projedata.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class ScheduledReceiptRequest {
+
+    @NotNull
+    public LocalDate expectedOn;
+
+    @NotNull
+    @DecimalMin(value = "0", inclusive = false)
+    @Digits(integer = 11, fraction = 4)
+    public BigDecimal quantity;
+
+    @Size(max = 255)
+    public String reference;
+}
@@ -0,0 +1,25 @@
+package com.projedata.dto;
+
+import com.projedata.entity.ScheduledReceipt;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class ScheduledReceiptResponse {
+
+    public Long id;
+    public Long rawMaterialId;
+    public LocalDate expectedOn;
+    public BigDecimal quantity;
+    public String reference;
+
+    public static ScheduledReceiptResponse from(ScheduledReceipt entity) {
+        ScheduledReceiptResponse dto = new ScheduledReceiptResponse();
+        dto.id = entity.id;
+        dto.rawMaterialId = entity.rawMaterialId;
+        dto.expectedOn = entity.expectedOn;
+        dto.quantity = entity.quantity;
+        dto.reference = entity.reference;
+        return dto;
+    }
+}
@@ -0,0 +1,20 @@
+package com.projedata.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+public class StockAdjustmentBatchRequest {
+
+    @NotEmpty
+    @Valid
+    public List<Item> items;
+
+    public static class Item extends StockAdjustmentRequest {
+
+        @NotNull
+        public Long rawMaterialId;
+    }
+}
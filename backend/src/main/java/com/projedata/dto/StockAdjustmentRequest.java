@@ -0,0 +1,22 @@
+package com.projedata.dto;
+
+import com.projedata.entity.StockMovement;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+
+public class StockAdjustmentRequest {
+
+    /** Signed change: positive adds to the stock, negative takes from it. */
+    @NotNull
+    @Digits(integer = 11, fraction = 4)
+    public BigDecimal delta;
+
+    /** Ledger kind; {@code RECEIPT} for positive deltas and {@code ADJUSTMENT} otherwise when omitted. */
+    public StockMovement.Kind kind;
+
+    @Size(max = 255)
+    public String reference;
+}
@@ -0,0 +1,12 @@
+package com.projedata.dto;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+public class StockLevelResponse {
+
+    public Long rawMaterialId;
+    /** {@code null} for the current stock. */
+    public OffsetDateTime at;
+    public BigDecimal stockQuantity;
+}
@@ -0,0 +1,25 @@
+package com.projedata.dto;
+
+import com.projedata.entity.StockMovement;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+public class StockMovementResponse {
+
+    public Long id;
+    public StockMovement.Kind kind;
+    public BigDecimal quantity;
+    public String reference;
+    public OffsetDateTime createdAt;
+
+    public static StockMovementResponse from(StockMovement entity) {
+        StockMovementResponse dto = new StockMovementResponse();
+        dto.id = entity.id;
+        dto.kind = entity.kind;
+        dto.quantity = entity.quantity;
+        dto.reference = entity.reference;
+        dto.createdAt = entity.createdAt;
+        return dto;
+    }
+}
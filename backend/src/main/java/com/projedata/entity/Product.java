@@ -2,26 +2,38 @@ package com.projedata.entity;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
 @Table(name = "products")
 public class Product extends PanacheEntityBase {
 
     @Id
-    @SequenceGenerator(name = "productsSeq", sequenceName = "products_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "productsSeq", sequenceName = "products_id_seq", allocationSize = 50)
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "productsSeq")
     public Long id;
 
     @Column(nullable = false)
     public String name;
 
+    // External (ERP) code, used by the bulk import to resolve references
+    @Column(unique = true, length = 64)
+    public String code;
+
     @Column(nullable = false, precision = 15, scale = 2)
     public BigDecimal value;
 
     @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     public List<ProductRawMaterial> rawMaterials = new ArrayList<>();
+
+    @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+    public List<ProductComponent> components = new ArrayList<>();
 }
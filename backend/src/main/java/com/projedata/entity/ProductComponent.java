@@ -0,0 +1,29 @@
+package com.projedata.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+
+/** BOM item that is itself a product (sub-assembly). */
+@Entity
+@Cacheable
+@Table(name = "product_components")
+public class ProductComponent extends PanacheEntityBase {
+
+    @EmbeddedId
+    public ProductComponentId id = new ProductComponentId();
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("productId")
+    @JoinColumn(name = "product_id")
+    public Product product;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @MapsId("componentId")
+    @JoinColumn(name = "component_id")
+    public Product component;
+
+    @Column(name = "required_quantity", nullable = false, precision = 15, scale = 4)
+    public BigDecimal requiredQuantity;
+}
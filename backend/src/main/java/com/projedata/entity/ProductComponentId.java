@@ -0,0 +1,30 @@
+package com.projedata.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class ProductComponentId implements Serializable {
+
+    @Column(name = "product_id")
+    public Long productId;
+
+    @Column(name = "component_id")
+    public Long componentId;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ProductComponentId other)) return false;
+        return Objects.equals(productId, other.productId) &&
+               Objects.equals(componentId, other.componentId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(productId, componentId);
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
+@Cacheable
 @Table(name = "product_raw_materials")
 public class ProductRawMaterial extends PanacheEntityBase {
 
@@ -6,17 +6,22 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
+@Cacheable
 @Table(name = "raw_materials")
 public class RawMaterial extends PanacheEntityBase {
 
     @Id
-    @SequenceGenerator(name = "rawMaterialsSeq", sequenceName = "raw_materials_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "rawMaterialsSeq", sequenceName = "raw_materials_id_seq", allocationSize = 50)
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rawMaterialsSeq")
     public Long id;
 
     @Column(nullable = false)
     public String name;
 
+    // External (ERP) code, used by the bulk import to resolve references
+    @Column(unique = true, length = 64)
+    public String code;
+
     @Column(name = "stock_quantity", nullable = false, precision = 15, scale = 4)
     public BigDecimal stockQuantity;
 }
@@ -0,0 +1,28 @@
+package com.projedata.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/** A delivery of raw material expected on a date; only read by the horizon planning. */
+@Entity
+@Table(name = "scheduled_receipts")
+public class ScheduledReceipt extends PanacheEntityBase {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    public Long id;
+
+    @Column(name = "raw_material_id", nullable = false)
+    public Long rawMaterialId;
+
+    @Column(name = "expected_on", nullable = false)
+    public LocalDate expectedOn;
+
+    @Column(nullable = false, precision = 15, scale = 4)
+    public BigDecimal quantity;
+
+    public String reference;
+}
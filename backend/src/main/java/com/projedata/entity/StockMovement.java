@@ -0,0 +1,40 @@
+package com.projedata.entity;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/** Append-only ledger entry; written in JDBC batches by {@code StockLedger}, read through Panache. */
+@Entity
+@Immutable
+@Table(name = "stock_movements")
+public class StockMovement extends PanacheEntityBase {
+
+    public enum Kind {
+        RECEIPT,
+        CONSUMPTION,
+        ADJUSTMENT
+    }
+
+    @Id
+    public Long id;
+
+    @Column(name = "raw_material_id", nullable = false)
+    public Long rawMaterialId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    public Kind kind;
+
+    /** Signed: positive adds to the stock, negative takes from it. */
+    @Column(nullable = false, precision = 15, scale = 4)
+    public BigDecimal quantity;
+
+    public String reference;
+
+    @Column(name = "created_at", nullable = false)
+    public OffsetDateTime createdAt;
+}
@@ -0,0 +1,99 @@
+package com.projedata.resource;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Reads and writes the DTOs as Smile or CBOR, the binary encodings of the Jackson data model.
+ * Both mappers are copies of the application's {@code ObjectMapper}, so the DTOs serialize with
+ * the same fields and modules as in JSON; only the encoding differs. Resources opt in by listing
+ * the media types next to {@code application/json} in {@code @Produces}/{@code @Consumes}.
+ */
+@Provider
+@Singleton
+@Produces({BinaryJsonProvider.APPLICATION_SMILE, BinaryJsonProvider.APPLICATION_CBOR})
+@Consumes({BinaryJsonProvider.APPLICATION_SMILE, BinaryJsonProvider.APPLICATION_CBOR})
+public class BinaryJsonProvider implements MessageBodyReader<Object>, MessageBodyWriter<Object> {
+
+    public static final String APPLICATION_SMILE = "application/x-jackson-smile";
+    public static final String APPLICATION_CBOR = "application/cbor";
+    public static final MediaType APPLICATION_SMILE_TYPE = MediaType.valueOf(APPLICATION_SMILE);
+    public static final MediaType APPLICATION_CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+
+    private final ObjectMapper smile;
+    private final ObjectMapper cbor;
+
+    @Inject
+    public BinaryJsonProvider(ObjectMapper json) {
+        this.smile = json.copyWith(new SmileFactory());
+        this.cbor = json.copyWith(new CBORFactory());
+    }
+
+    /** Whether {@code type} is one of the binary encodings this provider handles. */
+    public static boolean isBinary(MediaType type) {
+        return !type.isWildcardType() && !type.isWildcardSubtype()
+                && (APPLICATION_SMILE_TYPE.isCompatible(type) || APPLICATION_CBOR_TYPE.isCompatible(type));
+    }
+
+    /** Encodes a value up front, for resources that cache the serialized body. */
+    public byte[] write(Object value, MediaType type) throws JsonProcessingException {
+        return mapper(type).writeValueAsBytes(value);
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isBinary(mediaType) && !isRaw(type);
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        ObjectMapper mapper = mapper(mediaType);
+        return mapper.readerFor(mapper.constructType(genericType))
+                .without(JsonParser.Feature.AUTO_CLOSE_SOURCE)
+                .readValue(entityStream);
+    }
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return isBinary(mediaType) && !isRaw(type);
+    }
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                        MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        mapper(mediaType).writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValue(entityStream, value);
+    }
+
+    private ObjectMapper mapper(MediaType type) {
+        return APPLICATION_CBOR_TYPE.isCompatible(type) ? cbor : smile;
+    }
+
+    // Bodies the resources already encoded, e.g. a cached plan, go through the built-in writers
+    private static boolean isRaw(Class<?> type) {
+        return type == byte[].class || type == String.class
+                || StreamingOutput.class.isAssignableFrom(type) || InputStream.class.isAssignableFrom(type);
+    }
+}
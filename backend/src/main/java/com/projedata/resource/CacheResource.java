@@ -0,0 +1,40 @@
+package com.projedata.resource;
+
+import com.projedata.dto.CacheStatsResponse;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+@Path("/api/cache")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "Cache")
+public class CacheResource {
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    /** Hit, miss and put counts of each second-level cache region since startup. */
+    @GET
+    @Path("/stats")
+    public List<CacheStatsResponse> stats() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .sorted()
+                .map(region -> {
+                    CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+                    return regionStatistics == null ? null : CacheStatsResponse.from(region, regionStatistics);
+                })
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,65 @@
+package com.projedata.resource;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projedata.dto.ImportResponse;
+import com.projedata.service.importing.CatalogImportService;
+import com.projedata.service.importing.RecordReader;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.io.InputStream;
+
+/**
+ * Bulk import as CSV with a header row ({@code text/csv}) or as one JSON object per line
+ * ({@code application/x-ndjson}). Rows that fail validation are listed in the response and the
+ * rest are imported.
+ */
+@Path("/api/import")
+@Produces(MediaType.APPLICATION_JSON)
+@Consumes({ImportResource.TEXT_CSV, ProductionPlanningResource.APPLICATION_NDJSON})
+@Tag(name = "Import")
+public class ImportResource {
+
+    public static final String TEXT_CSV = "text/csv";
+
+    @Inject
+    CatalogImportService service;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    /** Columns: {@code code}, {@code name}, {@code stockQuantity}. */
+    @POST
+    @Path("/raw-materials")
+    public ImportResponse rawMaterials(@Context HttpHeaders headers, InputStream body) {
+        return service.importRawMaterials(reader(headers, body));
+    }
+
+    /** Columns: {@code code}, {@code name}, {@code value}. */
+    @POST
+    @Path("/products")
+    public ImportResponse products(@Context HttpHeaders headers, InputStream body) {
+        return service.importProducts(reader(headers, body));
+    }
+
+    /** Columns: {@code product}, {@code rawMaterial} (code or name), {@code requiredQuantity}. */
+    @POST
+    @Path("/bom")
+    public ImportResponse bom(@Context HttpHeaders headers, InputStream body) {
+        return service.importBom(reader(headers, body));
+    }
+
+    private RecordReader reader(HttpHeaders headers, InputStream body) {
+        MediaType type = headers.getMediaType();
+        return type != null && type.isCompatible(MediaType.valueOf(TEXT_CSV))
+                ? RecordReader.csv(body)
+                : RecordReader.jsonLines(body, objectMapper);
+    }
+}
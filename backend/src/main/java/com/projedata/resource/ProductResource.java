@@ -2,31 +2,74 @@ package com.projedata.resource;
 
 import com.projedata.dto.BomItemRequest;
 import com.projedata.dto.BomItemResponse;
+import com.projedata.dto.ComponentItemRequest;
+import com.projedata.dto.ComponentItemResponse;
+import com.projedata.dto.ProductCapacityResponse;
 import com.projedata.dto.ProductDetailResponse;
 import com.projedata.dto.ProductRequest;
 import com.projedata.dto.ProductResponse;
+import com.projedata.service.Keyset;
 import com.projedata.service.ProductService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.headers.Header;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
 import java.util.List;
 
 @Path("/api/products")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
+@Produces({MediaType.APPLICATION_JSON, BinaryJsonProvider.APPLICATION_SMILE, BinaryJsonProvider.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, BinaryJsonProvider.APPLICATION_SMILE, BinaryJsonProvider.APPLICATION_CBOR})
 @Tag(name = "Products")
 public class ProductResource {
 
     @Inject
     ProductService service;
 
+    /**
+     * Keyset-paginated when {@code limit} is given: the response carries {@code X-Next-Cursor}
+     * while more rows follow, to be passed back as {@code cursor} with the same sort and filter.
+     */
     @GET
-    public List<ProductResponse> list() {
-        return service.list();
+    @APIResponse(responseCode = "200", headers = @Header(name = "X-Next-Cursor", description = "Cursor for the next page"),
+            content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = ProductResponse.class)))
+    public Response list(@QueryParam("name") String name,
+                         @QueryParam("sort") @DefaultValue("id") @Parameter(description = "id, name, value") String sort,
+                         @QueryParam("order") @DefaultValue("asc") String order,
+                         @QueryParam("cursor") String cursor,
+                         @QueryParam("limit") @Min(1) @Max(Keyset.MAX_LIMIT) Integer limit) {
+        Keyset.Page<ProductResponse> page = service.list(name, sort, order, cursor, limit);
+        Response.ResponseBuilder response = Response.ok(page.items());
+        if (page.nextCursor() != null) {
+            response.header("X-Next-Cursor", page.nextCursor());
+        }
+        return response.build();
+    }
+
+    /** Units the current stock allows of each product on its own, computed in the database. */
+    @GET
+    @Path("/capacity")
+    public List<ProductCapacityResponse> listCapacity() {
+        return service.listCapacity();
+    }
+
+    @GET
+    @Path("/{id}/capacity")
+    public ProductCapacityResponse capacity(@PathParam("id") Long id) {
+        return service.capacity(id);
     }
 
     @GET
@@ -71,6 +114,14 @@ public class ProductResource {
         return Response.status(Response.Status.CREATED).entity(response).build();
     }
 
+    /** Replaces the whole raw material BOM; rows left out are removed. */
+    @PUT
+    @Path("/{id}/raw-materials")
+    @Tag(name = "BOM")
+    public List<BomItemResponse> replaceBom(@PathParam("id") Long id, @NotNull @Valid List<BomItemRequest> items) {
+        return service.replaceBom(id, items);
+    }
+
     @PUT
     @Path("/{id}/raw-materials/{rmId}")
     @Tag(name = "BOM")
@@ -87,4 +138,38 @@ public class ProductResource {
         service.deleteBomItem(id, rmId);
         return Response.noContent().build();
     }
+
+    // Sub-assembly sub-endpoints
+
+    @GET
+    @Path("/{id}/components")
+    @Tag(name = "BOM")
+    public List<ComponentItemResponse> listComponents(@PathParam("id") Long id) {
+        return service.listComponents(id);
+    }
+
+    @POST
+    @Path("/{id}/components")
+    @Tag(name = "BOM")
+    public Response addComponent(@PathParam("id") Long id, @Valid ComponentItemRequest request) {
+        ComponentItemResponse response = service.addComponent(id, request);
+        return Response.status(Response.Status.CREATED).entity(response).build();
+    }
+
+    @PUT
+    @Path("/{id}/components/{componentId}")
+    @Tag(name = "BOM")
+    public ComponentItemResponse updateComponent(@PathParam("id") Long id,
+                                                 @PathParam("componentId") Long componentId,
+                                                 @Valid ComponentItemRequest request) {
+        return service.updateComponent(id, componentId, request);
+    }
+
+    @DELETE
+    @Path("/{id}/components/{componentId}")
+    @Tag(name = "BOM")
+    public Response deleteComponent(@PathParam("id") Long id, @PathParam("componentId") Long componentId) {
+        service.deleteComponent(id, componentId);
+        return Response.noContent().build();
+    }
 }
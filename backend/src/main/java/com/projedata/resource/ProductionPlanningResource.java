@@ -1,25 +1,237 @@
 package com.projedata.resource;
 
+import com.projedata.dto.HorizonPlanResponse;
+import com.projedata.dto.PlanCommitRequest;
+import com.projedata.dto.PlanDeltaResponse;
 import com.projedata.dto.ProductionSuggestionResponse;
+import com.projedata.dto.ProductionSuggestionResponse.SuggestionTotal;
+import com.projedata.dto.RawMaterialResponse;
+import com.projedata.dto.ScenarioBatchRequest;
+import com.projedata.dto.ScenarioResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.projedata.service.PlanChangeFeed;
 import com.projedata.service.ProductionPlanningService;
+import com.projedata.service.ProductionPlanningService.SuggestionStream;
+import com.projedata.service.ProductionPlanningService.VersionedPlan;
+import com.projedata.service.planning.PlanningMode;
+import com.projedata.service.planning.PlanningPeriod;
+import io.smallrye.common.annotation.RunOnVirtualThread;
+import io.smallrye.mutiny.Multi;
 import jakarta.inject.Inject;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+import org.jboss.resteasy.reactive.RestStreamElementType;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Path("/api/production-planning")
-@Produces(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
+@Produces({MediaType.APPLICATION_JSON, BinaryJsonProvider.APPLICATION_SMILE, BinaryJsonProvider.APPLICATION_CBOR})
 @Tag(name = "Production Planning")
 public class ProductionPlanningResource {
 
+    public static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final MediaType NDJSON_TYPE = MediaType.valueOf(APPLICATION_NDJSON);
+
     @Inject
     ProductionPlanningService service;
 
+    @Inject
+    PlanChangeFeed changeFeed;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    BinaryJsonProvider binaryJson;
+
+    // Serialized body of the last greedy plan per media type, reused while its ETag stays current
+    private final Map<MediaType, CachedBody> cachedBodies = new ConcurrentHashMap<>();
+
     @GET
     @Path("/suggestions")
-    public ProductionSuggestionResponse suggestions() {
-        return service.suggest();
+    @Produces({MediaType.APPLICATION_JSON, APPLICATION_NDJSON,
+            BinaryJsonProvider.APPLICATION_SMILE, BinaryJsonProvider.APPLICATION_CBOR})
+    @APIResponse(responseCode = "200", content = {
+            @Content(mediaType = MediaType.APPLICATION_JSON,
+                    schema = @Schema(implementation = ProductionSuggestionResponse.class)),
+            @Content(mediaType = APPLICATION_NDJSON,
+                    schema = @Schema(implementation = ProductionSuggestionResponse.SuggestionItem.class)),
+            @Content(mediaType = BinaryJsonProvider.APPLICATION_SMILE,
+                    schema = @Schema(implementation = ProductionSuggestionResponse.class)),
+            @Content(mediaType = BinaryJsonProvider.APPLICATION_CBOR,
+                    schema = @Schema(implementation = ProductionSuggestionResponse.class))})
+    @APIResponse(responseCode = "304", description = "Plan unchanged since the ETag in If-None-Match")
+    public Response suggestions(@QueryParam("mode") @DefaultValue("greedy") String mode,
+                                @Context Request request,
+                                @Context HttpHeaders headers) throws JsonProcessingException {
+        PlanningMode planningMode = PlanningMode.fromString(mode);
+        MediaType type = responseType(headers);
+        if (type == NDJSON_TYPE) {
+            if (planningMode != PlanningMode.GREEDY) {
+                throw new BadRequestException("Streaming is only available in greedy mode");
+            }
+            return Response.ok(streamSuggestions(), APPLICATION_NDJSON).build();
+        }
+        if (planningMode == PlanningMode.OPTIMAL) {
+            return Response.ok(service.suggestOptimal(), type).build();
+        }
+
+        VersionedPlan plan = service.suggestVersioned();
+        // Each encoding is its own representation, so a cached JSON body never validates a CBOR one
+        EntityTag etag = new EntityTag(type == MediaType.APPLICATION_JSON_TYPE
+                ? plan.etag()
+                : plan.etag() + "-" + type.getSubtype());
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null) {
+            return notModified.header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+        }
+
+        CachedBody body = cachedBodies.get(type);
+        if (body == null || !body.etag().equals(plan.etag())) {
+            byte[] encoded = type == MediaType.APPLICATION_JSON_TYPE
+                    ? objectMapper.writeValueAsBytes(plan.plan())
+                    : binaryJson.write(plan.plan(), type);
+            body = new CachedBody(plan.etag(), encoded);
+            cachedBodies.put(type, body);
+        }
+        return Response.ok(body.content(), type).tag(etag).header(HttpHeaders.VARY, HttpHeaders.ACCEPT).build();
+    }
+
+    /**
+     * Server-sent events replacing polling of {@code /suggestions}: a {@code SNAPSHOT} of the greedy
+     * plan on subscription, then a {@code DELTA} per burst of committed catalog writes that changed it.
+     */
+    @GET
+    @Path("/suggestions/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    @RestStreamElementType(MediaType.APPLICATION_JSON)
+    public Multi<PlanDeltaResponse> suggestionEvents() {
+        return changeFeed.subscribe();
+    }
+
+    /**
+     * Production per day or week over a horizon, with the scheduled receipts of the raw materials
+     * arriving in their period. {@code start} is an ISO-8601 date, today by default.
+     */
+    @GET
+    @Path("/horizon")
+    public HorizonPlanResponse horizon(@QueryParam("periods") @DefaultValue("12") @Min(1)
+                                       @Max(ProductionPlanningService.MAX_HORIZON_PERIODS) int periods,
+                                       @QueryParam("period") @DefaultValue("week") String period,
+                                       @QueryParam("start") String start) {
+        PlanningPeriod planningPeriod = PlanningPeriod.fromString(period);
+        LocalDate startDate;
+        try {
+            startDate = start == null ? LocalDate.now() : LocalDate.parse(start);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid start: " + start + "; expected an ISO-8601 date");
+        }
+        return service.horizon(startDate, planningPeriod, periods);
+    }
+
+    @POST
+    @Path("/scenarios")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public List<ScenarioResponse> scenarios(@Valid ScenarioBatchRequest request) {
+        return service.evaluateScenarios(request.scenarios);
+    }
+
+    @POST
+    @Path("/commit")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @APIResponse(responseCode = "200", description = "New stock of every consumed raw material")
+    @APIResponse(responseCode = "409", description = "Some stock would go negative; nothing was consumed")
+    public List<RawMaterialResponse> commit(@Valid PlanCommitRequest request) {
+        return service.commit(request.items);
+    }
+
+    /**
+     * Newline-delimited JSON: one {@code SuggestionItem} per line in planning order, then a
+     * trailing line with {@code grandTotalValue}. Items are written as the greedy pass decides
+     * them, so memory use does not grow with the catalog.
+     */
+    private StreamingOutput streamSuggestions() {
+        SuggestionStream stream = service.streamSuggestions();
+        return output -> {
+            try {
+                SuggestionTotal total = new SuggestionTotal();
+                total.grandTotalValue = stream.forEach(item -> writeLine(output, item));
+                writeLine(output, total);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+    }
+
+    /**
+     * Only an explicit Accept for NDJSON, Smile or CBOR selects them; wildcards keep the plain
+     * JSON document. Returns one of the constants, so callers can compare by identity.
+     */
+    private static MediaType responseType(HttpHeaders headers) {
+        for (MediaType type : headers.getAcceptableMediaTypes()) {
+            if (type.isWildcardType()) {
+                return MediaType.APPLICATION_JSON_TYPE;
+            }
+            if (type.isWildcardSubtype()) {
+                if (MediaType.APPLICATION_JSON_TYPE.isCompatible(type)) {
+                    return MediaType.APPLICATION_JSON_TYPE;
+                }
+                continue;
+            }
+            if (NDJSON_TYPE.isCompatible(type)) {
+                return NDJSON_TYPE;
+            }
+            if (BinaryJsonProvider.APPLICATION_SMILE_TYPE.isCompatible(type)) {
+                return BinaryJsonProvider.APPLICATION_SMILE_TYPE;
+            }
+            if (BinaryJsonProvider.APPLICATION_CBOR_TYPE.isCompatible(type)) {
+                return BinaryJsonProvider.APPLICATION_CBOR_TYPE;
+            }
+            if (MediaType.APPLICATION_JSON_TYPE.isCompatible(type)) {
+                return MediaType.APPLICATION_JSON_TYPE;
+            }
+        }
+        return MediaType.APPLICATION_JSON_TYPE;
+    }
+
+    private void writeLine(OutputStream output, Object value) {
+        try {
+            output.write(objectMapper.writeValueAsBytes(value));
+            output.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record CachedBody(String etag, byte[] content) {
     }
 }
@@ -2,28 +2,63 @@ package com.projedata.resource;
 
 import com.projedata.dto.RawMaterialRequest;
 import com.projedata.dto.RawMaterialResponse;
+import com.projedata.dto.ScheduledReceiptRequest;
+import com.projedata.dto.ScheduledReceiptResponse;
+import com.projedata.dto.StockAdjustmentBatchRequest;
+import com.projedata.dto.StockAdjustmentRequest;
+import com.projedata.dto.StockLevelResponse;
+import com.projedata.dto.StockMovementResponse;
+import com.projedata.service.Keyset;
 import com.projedata.service.RawMaterialService;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.enums.SchemaType;
+import org.eclipse.microprofile.openapi.annotations.headers.Header;
+import org.eclipse.microprofile.openapi.annotations.media.Content;
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 
+
 @Path("/api/raw-materials")
-@Produces(MediaType.APPLICATION_JSON)
-@Consumes(MediaType.APPLICATION_JSON)
+@RunOnVirtualThread
+@Produces({MediaType.APPLICATION_JSON, BinaryJsonProvider.APPLICATION_SMILE, BinaryJsonProvider.APPLICATION_CBOR})
+@Consumes({MediaType.APPLICATION_JSON, BinaryJsonProvider.APPLICATION_SMILE, BinaryJsonProvider.APPLICATION_CBOR})
 @Tag(name = "Raw Materials")
 public class RawMaterialResource {
 
     @Inject
     RawMaterialService service;
 
+    /**
+     * Keyset-paginated when {@code limit} is given: the response carries {@code X-Next-Cursor}
+     * while more rows follow, to be passed back as {@code cursor} with the same sort and filter.
+     */
     @GET
-    public List<RawMaterialResponse> list() {
-        return service.list();
+    @APIResponse(responseCode = "200", headers = @Header(name = "X-Next-Cursor", description = "Cursor for the next page"),
+            content = @Content(schema = @Schema(type = SchemaType.ARRAY, implementation = RawMaterialResponse.class)))
+    public Response list(@QueryParam("name") String name,
+                         @QueryParam("sort") @DefaultValue("id") @Parameter(description = "id, name, stockQuantity") String sort,
+                         @QueryParam("order") @DefaultValue("asc") String order,
+                         @QueryParam("cursor") String cursor,
+                         @QueryParam("limit") @Min(1) @Max(Keyset.MAX_LIMIT) Integer limit) {
+        Keyset.Page<RawMaterialResponse> page = service.list(name, sort, order, cursor, limit);
+        Response.ResponseBuilder response = Response.ok(page.items());
+        if (page.nextCursor() != null) {
+            response.header("X-Next-Cursor", page.nextCursor());
+        }
+        return response.build();
     }
 
     @GET
@@ -32,6 +67,28 @@ public class RawMaterialResource {
         return service.findById(id);
     }
 
+    @GET
+    @Path("/{id}/movements")
+    @Tag(name = "Stock")
+    public List<StockMovementResponse> listMovements(@PathParam("id") Long id,
+                                                     @QueryParam("limit") @DefaultValue("100") @Min(1) @Max(Keyset.MAX_LIMIT) int limit) {
+        return service.listMovements(id, limit);
+    }
+
+    /** Stock at {@code at} (ISO-8601 with offset), rebuilt from the ledger; the current stock without it. */
+    @GET
+    @Path("/{id}/stock")
+    @Tag(name = "Stock")
+    public StockLevelResponse stockLevel(@PathParam("id") Long id, @QueryParam("at") String at) {
+        OffsetDateTime instant;
+        try {
+            instant = at == null ? null : OffsetDateTime.parse(at);
+        } catch (DateTimeParseException e) {
+            throw new BadRequestException("Invalid at: " + at + "; expected an ISO-8601 date-time with offset");
+        }
+        return service.stockLevel(id, instant);
+    }
+
     @POST
     public Response create(@Valid RawMaterialRequest request) {
         RawMaterialResponse response = service.create(request);
@@ -44,6 +101,53 @@ public class RawMaterialResource {
         return service.update(id, request);
     }
 
+    @POST
+    @Path("/{id}/adjust")
+    @Tag(name = "Stock")
+    @APIResponse(responseCode = "200", description = "New stock of the raw material")
+    @APIResponse(responseCode = "409", description = "The stock would go negative; nothing was changed")
+    public StockLevelResponse adjust(@PathParam("id") Long id, @Valid StockAdjustmentRequest request) {
+        StockAdjustmentBatchRequest.Item item = new StockAdjustmentBatchRequest.Item();
+        item.rawMaterialId = id;
+        item.delta = request.delta;
+        item.kind = request.kind;
+        item.reference = request.reference;
+        return service.adjust(List.of(item)).get(0);
+    }
+
+    @POST
+    @Path("/adjust")
+    @Tag(name = "Stock")
+    @APIResponse(responseCode = "200", description = "New stock of every adjusted raw material, by id")
+    @APIResponse(responseCode = "409", description = "Some stock would go negative; nothing was changed")
+    public List<StockLevelResponse> adjustBatch(@Valid StockAdjustmentBatchRequest request) {
+        return service.adjust(request.items);
+    }
+
+    @GET
+    @Path("/{id}/scheduled-receipts")
+    @Tag(name = "Stock")
+    public List<ScheduledReceiptResponse> listScheduledReceipts(@PathParam("id") Long id) {
+        return service.listScheduledReceipts(id);
+    }
+
+    /** An expected delivery; it does not change the stock, only the horizon planning. */
+    @POST
+    @Path("/{id}/scheduled-receipts")
+    @Tag(name = "Stock")
+    public Response scheduleReceipt(@PathParam("id") Long id, @Valid ScheduledReceiptRequest request) {
+        ScheduledReceiptResponse response = service.scheduleReceipt(id, request);
+        return Response.status(Response.Status.CREATED).entity(response).build();
+    }
+
+    @DELETE
+    @Path("/{id}/scheduled-receipts/{receiptId}")
+    @Tag(name = "Stock")
+    public Response cancelScheduledReceipt(@PathParam("id") Long id, @PathParam("receiptId") Long receiptId) {
+        service.cancelScheduledReceipt(id, receiptId);
+        return Response.noContent().build();
+    }
+
     @DELETE
     @Path("/{id}")
     public Response delete(@PathParam("id") Long id) {
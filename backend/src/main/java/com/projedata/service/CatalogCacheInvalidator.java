@@ -0,0 +1,70 @@
+package com.projedata.service;
+
+import com.projedata.entity.Product;
+import com.projedata.entity.ProductComponent;
+import com.projedata.entity.ProductRawMaterial;
+import com.projedata.entity.RawMaterial;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+
+/**
+ * Evicts second-level cache entries that Hibernate cannot keep up to date by itself: the JDBC
+ * batches (plan commit, BOM replacement, bulk import), the rows the database deletes by cascade,
+ * the BOM collections of a product when a row is added or removed without going through the
+ * collection, and the entries cached for the read replica, which Hibernate keys by datasource.
+ *
+ * <p>Because of the latter, whole regions are evicted rather than single entries; catalog writes
+ * are rare next to reads.
+ *
+ * <p>Each change is evicted twice: when the event is fired, inside the writing transaction, and
+ * again after it completes. Writers fire one event per write, so a batch touching many rows
+ * still evicts a region only twice. A reader can load the pre-commit row while the write is in flight and
+ * put it back after the first eviction; the second one removes it. Waiting for idle expiry would
+ * not help, since steady reads keep a stale entry from ever going idle.
+ */
+@ApplicationScoped
+public class CatalogCacheInvalidator {
+
+    static final String RAW_MATERIALS_COLLECTION = Product.class.getName() + ".rawMaterials";
+    static final String COMPONENTS_COLLECTION = Product.class.getName() + ".components";
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    void beforeCommit(@Observes(during = TransactionPhase.IN_PROGRESS) CatalogChanged change) {
+        evict(change);
+    }
+
+    void afterCompletion(@Observes(during = TransactionPhase.AFTER_COMPLETION) CatalogChanged change) {
+        evict(change);
+    }
+
+    private void evict(CatalogChanged change) {
+        Cache cache = sessionFactory.getCache();
+        switch (change.kind()) {
+            case PRODUCT -> {
+                cache.evictEntityData(Product.class);
+                // Deleting a product removes it, by cascade, from the BOMs that use it as a sub-assembly
+                cache.evictCollectionData(COMPONENTS_COLLECTION);
+                cache.evictEntityData(ProductComponent.class);
+            }
+            case BOM -> {
+                cache.evictCollectionData(RAW_MATERIALS_COLLECTION);
+                cache.evictEntityData(ProductRawMaterial.class);
+            }
+            case COMPONENT -> {
+                cache.evictCollectionData(COMPONENTS_COLLECTION);
+                cache.evictEntityData(ProductComponent.class);
+            }
+            case RAW_MATERIAL -> cache.evictEntityData(RawMaterial.class);
+            case SCHEDULED_RECEIPT -> {
+                // Scheduled receipts are not cached
+            }
+            case BULK -> cache.evictAllRegions();
+        }
+    }
+}
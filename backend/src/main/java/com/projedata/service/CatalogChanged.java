@@ -0,0 +1,56 @@
+package com.projedata.service;
+
+import java.util.Set;
+
+/**
+ * Fired by the catalog services on every write. Observers that cache derived data listen with
+ * {@code TransactionPhase.AFTER_SUCCESS} so they only see committed changes. A write fires one
+ * event, however many rows it touches, so each observer handles it once per transaction.
+ */
+public record CatalogChanged(Kind kind, Long productId, Set<Long> rawMaterialIds) {
+
+    public enum Kind {
+        PRODUCT,
+        BOM,
+        COMPONENT,
+        RAW_MATERIAL,
+        SCHEDULED_RECEIPT,
+        BULK
+    }
+
+    public static CatalogChanged product(Long productId) {
+        return new CatalogChanged(Kind.PRODUCT, productId, Set.of());
+    }
+
+    public static CatalogChanged bom(Long productId, Long rawMaterialId) {
+        return new CatalogChanged(Kind.BOM, productId, rawMaterialId == null ? Set.of() : Set.of(rawMaterialId));
+    }
+
+    /** A sub-assembly was added to, changed in or removed from the BOM of {@code productId}. */
+    public static CatalogChanged component(Long productId) {
+        return new CatalogChanged(Kind.COMPONENT, productId, Set.of());
+    }
+
+    /**
+     * A receipt of {@code rawMaterialId} was scheduled or cancelled. It does not change the plan,
+     * only what later reads of the receipts and the horizon see.
+     */
+    public static CatalogChanged scheduledReceipt(Long rawMaterialId) {
+        return new CatalogChanged(Kind.SCHEDULED_RECEIPT, null, Set.of(rawMaterialId));
+    }
+
+    /** Many rows of any kind were written at once, e.g. by the bulk import. */
+    public static CatalogChanged bulk() {
+        return new CatalogChanged(Kind.BULK, null, Set.of());
+    }
+
+    /** The raw material was created, changed or deleted. */
+    public static CatalogChanged rawMaterial(Long rawMaterialId) {
+        return new CatalogChanged(Kind.RAW_MATERIAL, null, Set.of(rawMaterialId));
+    }
+
+    /** The stock of several raw materials changed in one write, e.g. a batch adjustment. */
+    public static CatalogChanged rawMaterials(Set<Long> rawMaterialIds) {
+        return new CatalogChanged(Kind.RAW_MATERIAL, null, Set.copyOf(rawMaterialIds));
+    }
+}
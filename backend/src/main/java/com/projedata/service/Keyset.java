@@ -0,0 +1,136 @@
+package com.projedata.service;
+
+import io.quarkus.hibernate.orm.panache.PanacheQuery;
+import io.quarkus.panache.common.Parameters;
+import io.quarkus.panache.common.Sort;
+import jakarta.ws.rs.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Cursor-based (keyset) pagination for the list endpoints.
+ *
+ * <p>Rows are read with a projection query ordered by the sort column and then by id. The cursor
+ * encodes the position of the last row returned, and the next page starts strictly after it. A
+ * deep page therefore costs the same as the first one, and concurrent inserts do not shift rows
+ * between pages.
+ */
+public final class Keyset {
+
+    public static final int MAX_LIMIT = 500;
+
+    private Keyset() {
+    }
+
+    /**
+     * A column the list can be sorted by.
+     *
+     * @param path  JPQL path of the column; must be non-null for every row
+     * @param value reads the column from a projected row
+     * @param parse turns the string form written into cursors back into the column type
+     */
+    public record SortColumn<T>(String path, Function<T, Object> value, Function<String, Object> parse) {
+    }
+
+    /** @param nextCursor cursor for the following page, or {@code null} on the last page */
+    public record Page<T>(List<T> items, String nextCursor) {
+    }
+
+    @FunctionalInterface
+    public interface Finder<E> {
+        PanacheQuery<E> find(String query, Sort sort, Parameters parameters);
+    }
+
+    /**
+     * @param sortKey    key into {@code columns}
+     * @param order      {@code asc} or {@code desc}
+     * @param nameFilter case-insensitive substring of {@code name}, or {@code null}
+     * @param cursor     {@code nextCursor} of the previous page, or {@code null} for the first
+     * @param limit      page size, or {@code null} for every remaining row
+     */
+    public static <E, T> Page<T> page(Finder<E> finder, Class<T> projection, Function<T, Long> id,
+                                      Map<String, SortColumn<T>> columns, String sortKey, String order,
+                                      String nameFilter, String cursor, Integer limit) {
+        SortColumn<T> column = columns.get(sortKey);
+        if (column == null) {
+            throw new BadRequestException("Unknown sort: " + sortKey + "; expected one of " + columns.keySet());
+        }
+        Sort.Direction direction = switch (order.toLowerCase(Locale.ROOT)) {
+            case "asc" -> Sort.Direction.Ascending;
+            case "desc" -> Sort.Direction.Descending;
+            default -> throw new BadRequestException("Unknown order: " + order + "; expected asc or desc");
+        };
+        boolean byId = column.path().equals("id");
+        String comparison = direction == Sort.Direction.Ascending ? ">" : "<";
+
+        List<String> conditions = new ArrayList<>();
+        Parameters parameters = new Parameters();
+        if (nameFilter != null && !nameFilter.isBlank()) {
+            conditions.add("lower(name) LIKE :name ESCAPE '\\'");
+            parameters.and("name", "%" + escapeLike(nameFilter.toLowerCase(Locale.ROOT)) + "%");
+        }
+        if (cursor != null) {
+            String[] position = decode(cursor, sortKey);
+            parameters.and("afterId", parseCursorPart(position[0], Long::valueOf));
+            if (byId) {
+                conditions.add("id " + comparison + " :afterId");
+            } else {
+                String path = column.path();
+                conditions.add("(" + path + " " + comparison + " :after OR (" + path + " = :after AND id "
+                        + comparison + " :afterId))");
+                parameters.and("after", parseCursorPart(position[1], column.parse()));
+            }
+        }
+        Sort sort = byId ? Sort.by("id", direction) : Sort.by(column.path(), direction).and("id", direction);
+
+        PanacheQuery<T> query = finder.find(String.join(" AND ", conditions), sort, parameters).project(projection);
+        if (limit == null) {
+            return new Page<>(query.list(), null);
+        }
+        // One extra row tells whether there is a next page without a count query
+        List<T> rows = query.range(0, limit).list();
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        T last = items.get(limit - 1);
+        return new Page<>(items, encode(sortKey, id.apply(last), column.value().apply(last)));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String encode(String sortKey, Long id, Object value) {
+        String position = sortKey + "\n" + id + "\n" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** @return the id and the sort value of the cursor position */
+    private static String[] decode(String cursor, String sortKey) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\n", 3);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (parts.length != 3 || !parts[0].equals(sortKey)) {
+            throw new BadRequestException("Invalid cursor for sort " + sortKey);
+        }
+        return new String[] {parts[1], parts[2]};
+    }
+
+    private static <V> V parseCursorPart(String value, Function<String, V> parse) {
+        try {
+            return parse.apply(value);
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
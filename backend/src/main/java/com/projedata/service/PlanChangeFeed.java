@@ -0,0 +1,177 @@
+package com.projedata.service;
+
+import com.projedata.dto.PlanDeltaResponse;
+import com.projedata.dto.ProductionSuggestionResponse.SuggestionItem;
+import com.projedata.service.ProductionPlanningService.VersionedPlan;
+import io.quarkus.arc.Arc;
+import io.quarkus.arc.ManagedContext;
+import io.smallrye.mutiny.Multi;
+import io.smallrye.mutiny.subscription.MultiEmitter;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes plan changes to the subscribers of the server-sent events stream.
+ *
+ * <p>Committed catalog writes schedule a single recomputation after {@code planning.events.coalesce},
+ * so a burst of writes costs one plan and one event. The plan is diffed against the one last sent
+ * and the same delta object goes to every subscriber; nothing is computed per subscriber. A new
+ * subscriber first receives a snapshot of the whole plan, taken in the same pass as the deltas so
+ * that none is missed in between.
+ *
+ * <p>All plan work runs on one scheduler thread. A subscriber that falls more than
+ * {@code planning.events.buffer} events behind is disconnected; on reconnecting it gets a fresh
+ * snapshot instead of an ever-growing backlog.
+ */
+@ApplicationScoped
+public class PlanChangeFeed {
+
+    private static final Logger LOG = Logger.getLogger(PlanChangeFeed.class);
+
+    @Inject
+    ProductionPlanningService planning;
+
+    @ConfigProperty(name = "planning.events.coalesce", defaultValue = "200ms")
+    Duration coalesce;
+
+    @ConfigProperty(name = "planning.events.buffer", defaultValue = "64")
+    int buffer;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("plan-events").daemon().factory());
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Set<MultiEmitter<? super PlanDeltaResponse>> joining = ConcurrentHashMap.newKeySet();
+    private final Set<MultiEmitter<? super PlanDeltaResponse>> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Plan last sent to the subscribers; only touched on the scheduler thread
+    private Map<Long, SuggestionItem> sentItems;
+    private BigDecimal sentTotal;
+
+    public Multi<PlanDeltaResponse> subscribe() {
+        return Multi.createFrom().<PlanDeltaResponse>emitter(emitter -> {
+            emitter.onTermination(() -> {
+                joining.remove(emitter);
+                subscribers.remove(emitter);
+            });
+            joining.add(emitter);
+            schedule(Duration.ZERO);
+        }).onOverflow().buffer(buffer);
+    }
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChanged change) {
+        // Scheduled receipts only feed the horizon, not the greedy plan this stream carries
+        if (change.kind() != CatalogChanged.Kind.SCHEDULED_RECEIPT
+                && (!subscribers.isEmpty() || !joining.isEmpty())) {
+            schedule(coalesce);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void schedule(Duration delay) {
+        if (scheduled.compareAndSet(false, true)) {
+            scheduler.schedule(this::publish, delay.toNanos(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void publish() {
+        // Cleared first: a write committed while the plan is computed schedules the next pass
+        scheduled.set(false);
+        if (subscribers.isEmpty() && joining.isEmpty()) {
+            sentItems = null;
+            return;
+        }
+
+        VersionedPlan plan;
+        ManagedContext requestContext = Arc.container().requestContext();
+        requestContext.activate();
+        try {
+            plan = planning.suggestVersioned();
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Could not compute the plan for the event stream");
+            return;
+        } finally {
+            requestContext.terminate();
+        }
+
+        Map<Long, SuggestionItem> items = new HashMap<>();
+        for (SuggestionItem item : plan.plan().suggestions) {
+            items.put(item.productId, item);
+        }
+        if (sentItems != null && !subscribers.isEmpty()) {
+            PlanDeltaResponse delta = diff(plan, items);
+            if (delta != null) {
+                subscribers.forEach(subscriber -> subscriber.emit(delta));
+            }
+        }
+        sentItems = items;
+        sentTotal = plan.plan().grandTotalValue;
+
+        if (!joining.isEmpty()) {
+            PlanDeltaResponse snapshot = PlanDeltaResponse.of(PlanDeltaResponse.Type.SNAPSHOT, plan.etag(),
+                    plan.plan().suggestions, List.of(), plan.plan().grandTotalValue);
+            for (MultiEmitter<? super PlanDeltaResponse> subscriber : joining) {
+                if (subscriber.isCancelled()) {
+                    joining.remove(subscriber);
+                    continue;
+                }
+                // Added before leaving joining, so a write committed meanwhile still schedules a pass
+                subscribers.add(subscriber);
+                joining.remove(subscriber);
+                subscriber.emit(snapshot);
+            }
+        }
+    }
+
+    /** @return the changes since the plan last sent, or {@code null} if there are none */
+    private PlanDeltaResponse diff(VersionedPlan plan, Map<Long, SuggestionItem> items) {
+        List<SuggestionItem> changed = new ArrayList<>();
+        for (SuggestionItem item : plan.plan().suggestions) {
+            SuggestionItem previous = sentItems.get(item.productId);
+            if (previous == null || !sameItem(previous, item)) {
+                changed.add(item);
+            }
+        }
+        List<Long> removed = new ArrayList<>();
+        for (Long productId : sentItems.keySet()) {
+            if (!items.containsKey(productId)) {
+                removed.add(productId);
+            }
+        }
+        BigDecimal total = plan.plan().grandTotalValue;
+        if (changed.isEmpty() && removed.isEmpty() && sentTotal.compareTo(total) == 0) {
+            return null;
+        }
+        return PlanDeltaResponse.of(PlanDeltaResponse.Type.DELTA, plan.etag(), changed, removed, total);
+    }
+
+    // Every field the item carries, so a rename or a price change at quantity 0 is sent too
+    private static boolean sameItem(SuggestionItem a, SuggestionItem b) {
+        return a.producibleQuantity == b.producibleQuantity
+                && Objects.equals(a.productName, b.productName)
+                && a.productValue.compareTo(b.productValue) == 0
+                && a.totalValue.compareTo(b.totalValue) == 0;
+    }
+}
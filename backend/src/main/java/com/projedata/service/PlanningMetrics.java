@@ -0,0 +1,119 @@
+package com.projedata.service;
+
+import com.projedata.service.planning.PlanningModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Planning meters: compute time by kind of pass, products allocated per plan, the size of the
+ * compiled catalog and how often the cached greedy plan is reused. Rebuild times include loading
+ * the catalog from the database; the other passes are pure computation.
+ */
+@ApplicationScoped
+public class PlanningMetrics {
+
+    private final MeterRegistry registry;
+    private final Timer rebuild;
+    private final Timer incremental;
+    private final Timer optimal;
+    private final Timer scenarios;
+    private final Timer horizon;
+    private final DistributionSummary greedyAllocated;
+    private final DistributionSummary optimalAllocated;
+    private final Counter planCacheHits;
+    private final Counter planCacheMisses;
+    private volatile PlanningModel model;
+
+    @Inject
+    public PlanningMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        rebuild = computeTimer(registry, "rebuild");
+        incremental = computeTimer(registry, "incremental");
+        optimal = computeTimer(registry, "optimal");
+        scenarios = computeTimer(registry, "scenarios");
+        horizon = computeTimer(registry, "horizon");
+        greedyAllocated = allocatedSummary(registry, "greedy");
+        optimalAllocated = allocatedSummary(registry, "optimal");
+        planCacheHits = Counter.builder("planning.plan.cache").tag("result", "hit").register(registry);
+        planCacheMisses = Counter.builder("planning.plan.cache").tag("result", "miss").register(registry);
+    }
+
+    /** The gauges hold on to this bean, so they are registered once it is fully constructed. */
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder("planning.catalog.products", this, m -> m.model == null ? 0 : m.model.productCount())
+                .description("Products in the compiled planning model")
+                .register(registry);
+        Gauge.builder("planning.catalog.raw_materials", this, m -> m.model == null ? 0 : m.model.materialCount())
+                .description("Raw materials in the compiled planning model")
+                .register(registry);
+        Gauge.builder("planning.catalog.bom_rows", this,
+                        m -> m.model == null ? 0 : m.model.bomStart[m.model.productCount()])
+                .description("Exploded BOM rows in the compiled planning model")
+                .register(registry);
+    }
+
+    private static Timer computeTimer(MeterRegistry registry, String pass) {
+        return Timer.builder("planning.compute")
+                .description("Time to compute a plan")
+                .tag("pass", pass)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static DistributionSummary allocatedSummary(MeterRegistry registry, String mode) {
+        return DistributionSummary.builder("planning.products.allocated")
+                .description("Products with a quantity above zero in a computed plan")
+                .tag("mode", mode)
+                .register(registry);
+    }
+
+    public void rebuilt(PlanningModel model, long nanos) {
+        this.model = model;
+        rebuild.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void updated(PlanningModel model, long nanos) {
+        this.model = model;
+        incremental.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void optimalSolved(long[] quantities, long nanos) {
+        optimal.record(nanos, TimeUnit.NANOSECONDS);
+        optimalAllocated.record(allocated(quantities));
+    }
+
+    public void scenariosEvaluated(long nanos) {
+        scenarios.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void horizonPlanned(long nanos) {
+        horizon.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void greedyPlanned(long[] quantities) {
+        greedyAllocated.record(allocated(quantities));
+    }
+
+    public void planCache(boolean hit) {
+        (hit ? planCacheHits : planCacheMisses).increment();
+    }
+
+    private static int allocated(long[] quantities) {
+        int count = 0;
+        for (long quantity : quantities) {
+            if (quantity > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -2,30 +2,63 @@ package com.projedata.service;
 
 import com.projedata.dto.BomItemRequest;
 import com.projedata.dto.BomItemResponse;
+import com.projedata.dto.ComponentItemRequest;
+import com.projedata.dto.ComponentItemResponse;
+import com.projedata.dto.ProductCapacityResponse;
 import com.projedata.dto.ProductDetailResponse;
 import com.projedata.dto.ProductRequest;
 import com.projedata.dto.ProductResponse;
 import com.projedata.entity.Product;
+import com.projedata.entity.ProductComponent;
+import com.projedata.entity.ProductComponentId;
 import com.projedata.entity.ProductRawMaterial;
 import com.projedata.entity.ProductRawMaterialId;
 import com.projedata.entity.RawMaterial;
+import com.projedata.service.planning.BomExplosion;
+import com.projedata.service.planning.PlanningModel;
+import com.projedata.service.replica.ReadOnly;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
+import org.hibernate.Session;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 @ApplicationScoped
 public class ProductService {
 
-    public List<ProductResponse> list() {
-        return Product.<Product>listAll()
-                .stream()
-                .map(ProductResponse::from)
-                .toList();
+    // Arbitrary key for the transaction-scoped advisory lock taken by addComponent
+    private static final long COMPONENT_GRAPH_LOCK = 0x70726f6a;
+
+    private static final Map<String, Keyset.SortColumn<ProductResponse>> SORT_COLUMNS = Map.of(
+            "id", new Keyset.SortColumn<>("id", row -> row.id, Long::valueOf),
+            "name", new Keyset.SortColumn<>("name", row -> row.name, value -> value),
+            "value", new Keyset.SortColumn<>("value", row -> row.value, BigDecimal::new));
+
+    @Inject
+    Event<CatalogChanged> catalogEvents;
+
+    @ReadOnly
+    public Keyset.Page<ProductResponse> list(String name, String sort, String order, String cursor, Integer limit) {
+        return Keyset.page((query, s, params) -> Product.find(query, s, params), ProductResponse.class,
+                row -> row.id, SORT_COLUMNS, sort, order, name, cursor, limit);
     }
 
+    @ReadOnly
     public ProductDetailResponse findById(Long id) {
         Product entity = Product.findById(id);
         if (entity == null) {
@@ -37,9 +70,12 @@ public class ProductService {
     @Transactional
     public ProductResponse create(ProductRequest request) {
         Product entity = new Product();
+        checkCodeAvailable(request.code, null);
         entity.name = request.name;
+        entity.code = request.code;
         entity.value = request.value;
         entity.persist();
+        catalogEvents.fire(CatalogChanged.product(entity.id));
         return ProductResponse.from(entity);
     }
 
@@ -49,8 +85,14 @@ public class ProductService {
         if (entity == null) {
             throw new NotFoundException("Product not found: " + id);
         }
+        // Clients that do not know about codes (e.g. the frontend) leave them untouched
+        if (request.code != null) {
+            checkCodeAvailable(request.code, id);
+            entity.code = request.code;
+        }
         entity.name = request.name;
         entity.value = request.value;
+        catalogEvents.fire(CatalogChanged.product(id));
         return ProductResponse.from(entity);
     }
 
@@ -61,10 +103,18 @@ public class ProductService {
             throw new NotFoundException("Product not found: " + id);
         }
         entity.delete();
+        catalogEvents.fire(CatalogChanged.product(id));
+    }
+
+    private void checkCodeAvailable(String code, Long id) {
+        if (code != null && Product.count("code = ?1 AND id <> ?2", code, id == null ? -1L : id) > 0) {
+            throw new BadRequestException("Product code already in use: " + code);
+        }
     }
 
     // BOM operations
 
+    @ReadOnly
     public List<BomItemResponse> listBom(Long productId) {
         Product product = Product.findById(productId);
         if (product == null) {
@@ -86,20 +136,21 @@ public class ProductService {
             throw new NotFoundException("Raw material not found: " + request.rawMaterialId);
         }
 
-        boolean alreadyExists = product.rawMaterials.stream()
-                .anyMatch(item -> item.rawMaterial.id.equals(request.rawMaterialId));
-        if (alreadyExists) {
+        ProductRawMaterialId pk = new ProductRawMaterialId();
+        pk.productId = productId;
+        pk.rawMaterialId = request.rawMaterialId;
+        // Primary key lookup instead of loading the whole BOM collection
+        if (ProductRawMaterial.findById(pk) != null) {
             throw new BadRequestException("Raw material already in BOM for this product");
         }
 
         ProductRawMaterial item = new ProductRawMaterial();
-        item.id = new ProductRawMaterialId();
-        item.id.productId = productId;
-        item.id.rawMaterialId = request.rawMaterialId;
+        item.id = pk;
         item.product = product;
         item.rawMaterial = rawMaterial;
         item.requiredQuantity = request.requiredQuantity;
         item.persist();
+        catalogEvents.fire(CatalogChanged.bom(productId, request.rawMaterialId));
 
         return BomItemResponse.from(item);
     }
@@ -115,6 +166,7 @@ public class ProductService {
             throw new NotFoundException("BOM item not found");
         }
         item.requiredQuantity = request.requiredQuantity;
+        catalogEvents.fire(CatalogChanged.bom(productId, rawMaterialId));
         return BomItemResponse.from(item);
     }
 
@@ -129,5 +181,244 @@ public class ProductService {
             throw new NotFoundException("BOM item not found");
         }
         item.delete();
+        catalogEvents.fire(CatalogChanged.bom(productId, rawMaterialId));
+    }
+
+    /**
+     * Makes {@code items} the whole raw material BOM of the product. Only the difference with
+     * the current BOM is written: one batched upsert for new and changed rows and one delete for
+     * the rows left out.
+     */
+    @Transactional
+    public List<BomItemResponse> replaceBom(Long productId, List<BomItemRequest> items) {
+        // Locks the product so concurrent replacements of its BOM apply one after the other
+        Product product = Product.findById(productId, LockModeType.PESSIMISTIC_WRITE);
+        if (product == null) {
+            throw new NotFoundException("Product not found: " + productId);
+        }
+        Map<Long, BigDecimal> desired = new HashMap<>();
+        for (BomItemRequest item : items) {
+            if (desired.put(item.rawMaterialId, item.requiredQuantity) != null) {
+                throw new BadRequestException("Raw material listed more than once: " + item.rawMaterialId);
+            }
+        }
+        if (!desired.isEmpty()) {
+            List<Long> found = RawMaterial.getEntityManager()
+                    .createQuery("SELECT r.id FROM RawMaterial r WHERE r.id IN :ids", Long.class)
+                    .setParameter("ids", desired.keySet())
+                    .getResultList();
+            if (found.size() != desired.size()) {
+                Set<Long> missing = new TreeSet<>(desired.keySet());
+                found.forEach(missing::remove);
+                throw new NotFoundException("Raw materials not found: " + missing);
+            }
+        }
+
+        Map<Long, BigDecimal> upserts = new TreeMap<>(desired);
+        List<Long> removed = new ArrayList<>();
+        for (PlanningModel.BomRow row : ProductRawMaterial.find("id.productId", productId)
+                .project(PlanningModel.BomRow.class).list()) {
+            BigDecimal quantity = desired.get(row.rawMaterialId());
+            if (quantity == null) {
+                removed.add(row.rawMaterialId());
+            } else if (quantity.compareTo(row.requiredQuantity()) == 0) {
+                upserts.remove(row.rawMaterialId());
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            ProductRawMaterial.delete("id.productId = ?1 AND id.rawMaterialId IN ?2", productId, removed);
+        }
+        if (!upserts.isEmpty()) {
+            Product.getEntityManager().unwrap(Session.class).doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement("""
+                        INSERT INTO product_raw_materials (product_id, raw_material_id, required_quantity)
+                        VALUES (?, ?, ?)
+                        ON CONFLICT (product_id, raw_material_id) DO UPDATE SET required_quantity = EXCLUDED.required_quantity""")) {
+                    for (Map.Entry<Long, BigDecimal> entry : upserts.entrySet()) {
+                        statement.setLong(1, productId);
+                        statement.setLong(2, entry.getKey());
+                        statement.setBigDecimal(3, entry.getValue());
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            });
+        }
+        if (!removed.isEmpty() || !upserts.isEmpty()) {
+            catalogEvents.fire(CatalogChanged.bom(productId, null));
+        }
+
+        return ProductRawMaterial.<ProductRawMaterial>find(
+                        "FROM ProductRawMaterial i JOIN FETCH i.rawMaterial WHERE i.id.productId = ?1 ORDER BY i.id.rawMaterialId",
+                        productId)
+                .stream()
+                .map(BomItemResponse::from)
+                .toList();
+    }
+
+    // Capacity
+
+    /**
+     * Capacity of every product. Sub-assemblies are exploded with the planner's memoized
+     * {@link BomExplosion}, so a sub-assembly shared by many paths is expanded once.
+     */
+    @ReadOnly
+    public List<ProductCapacityResponse> listCapacity() {
+        List<PlanningModel.BomRow> bomRows = ProductRawMaterial.findAll()
+                .project(PlanningModel.BomRow.class).list();
+        List<PlanningModel.ComponentRow> componentRows = ProductComponent.findAll()
+                .project(PlanningModel.ComponentRow.class).list();
+        BomExplosion explosion = new BomExplosion(bomRows, componentRows);
+        Map<Long, BigDecimal> stock = new HashMap<>();
+        for (PlanningModel.MaterialRow material : RawMaterial.findAll()
+                .project(PlanningModel.MaterialRow.class).list()) {
+            stock.put(material.id(), material.stockQuantity());
+        }
+        return Product.find("ORDER BY id").project(PlanningModel.ProductRow.class).list().stream()
+                .map(product -> capacity(product, explosion, stock))
+                .toList();
+    }
+
+    @ReadOnly
+    public ProductCapacityResponse capacity(Long productId) {
+        List<PlanningModel.ProductRow> products = Product.find("id", productId)
+                .project(PlanningModel.ProductRow.class).list();
+        if (products.isEmpty()) {
+            throw new NotFoundException("Product not found: " + productId);
+        }
+        BomExplosion explosion = ProductionPlanningService.loadBoms(List.of(productId));
+        List<Long> materialIds = explosion.explodedRows(productId).stream()
+                .map(PlanningModel.BomRow::rawMaterialId)
+                .toList();
+        Map<Long, BigDecimal> stock = new HashMap<>();
+        if (!materialIds.isEmpty()) {
+            for (PlanningModel.MaterialRow material : RawMaterial.find("id in ?1", materialIds)
+                    .project(PlanningModel.MaterialRow.class).list()) {
+                stock.put(material.id(), material.stockQuantity());
+            }
+        }
+        return capacity(products.get(0), explosion, stock);
+    }
+
+    /**
+     * Keeps the raw material that allows the fewest units, the lowest id on ties. Requirements are
+     * rounded up to the column scale like the planner does.
+     */
+    private static ProductCapacityResponse capacity(PlanningModel.ProductRow product, BomExplosion explosion,
+            Map<Long, BigDecimal> stock) {
+        ProductCapacityResponse dto = new ProductCapacityResponse();
+        dto.productId = product.id();
+        dto.name = product.name();
+        for (PlanningModel.BomRow row : explosion.explodedRows(product.id())) {
+            BigDecimal available = stock.get(row.rawMaterialId());
+            if (available == null) {
+                continue;
+            }
+            BigDecimal required = row.requiredQuantity().setScale(PlanningModel.QUANTITY_SCALE, RoundingMode.CEILING);
+            long units = available.divide(required, 0, RoundingMode.FLOOR).longValue();
+            if (dto.capacity == null || units < dto.capacity
+                    || units == dto.capacity && row.rawMaterialId() < dto.limitingRawMaterialId) {
+                dto.capacity = units;
+                dto.limitingRawMaterialId = row.rawMaterialId();
+            }
+        }
+        return dto;
+    }
+
+    // Sub-assembly operations
+
+    @ReadOnly
+    public List<ComponentItemResponse> listComponents(Long productId) {
+        Product product = Product.findById(productId);
+        if (product == null) {
+            throw new NotFoundException("Product not found: " + productId);
+        }
+        return product.components.stream()
+                .map(ComponentItemResponse::from)
+                .toList();
+    }
+
+    @Transactional
+    public ComponentItemResponse addComponent(Long productId, ComponentItemRequest request) {
+        Product product = Product.findById(productId);
+        if (product == null) {
+            throw new NotFoundException("Product not found: " + productId);
+        }
+        Product component = Product.findById(request.componentId);
+        if (component == null) {
+            throw new NotFoundException("Product not found: " + request.componentId);
+        }
+
+        ProductComponentId pk = new ProductComponentId();
+        pk.productId = productId;
+        pk.componentId = request.componentId;
+        // Primary key lookup instead of loading the whole components collection
+        if (ProductComponent.findById(pk) != null) {
+            throw new BadRequestException("Component already in BOM for this product");
+        }
+        // Serializes component edits so two concurrent additions cannot close a cycle together
+        Product.getEntityManager()
+                .createNativeQuery("SELECT pg_advisory_xact_lock(" + COMPONENT_GRAPH_LOCK + ")")
+                .getSingleResult();
+        if (reaches(request.componentId, productId)) {
+            throw new BadRequestException("Component would create a cycle in the BOM");
+        }
+
+        ProductComponent item = new ProductComponent();
+        item.id = pk;
+        item.product = product;
+        item.component = component;
+        item.requiredQuantity = request.requiredQuantity;
+        item.persist();
+        catalogEvents.fire(CatalogChanged.component(productId));
+
+        return ComponentItemResponse.from(item);
+    }
+
+    @Transactional
+    public ComponentItemResponse updateComponent(Long productId, Long componentId, ComponentItemRequest request) {
+        ProductComponentId pk = new ProductComponentId();
+        pk.productId = productId;
+        pk.componentId = componentId;
+
+        ProductComponent item = ProductComponent.findById(pk);
+        if (item == null) {
+            throw new NotFoundException("BOM component not found");
+        }
+        item.requiredQuantity = request.requiredQuantity;
+        catalogEvents.fire(CatalogChanged.component(productId));
+        return ComponentItemResponse.from(item);
+    }
+
+    @Transactional
+    public void deleteComponent(Long productId, Long componentId) {
+        ProductComponentId pk = new ProductComponentId();
+        pk.productId = productId;
+        pk.componentId = componentId;
+
+        ProductComponent item = ProductComponent.findById(pk);
+        if (item == null) {
+            throw new NotFoundException("BOM component not found");
+        }
+        item.delete();
+        catalogEvents.fire(CatalogChanged.component(productId));
+    }
+
+    /** Whether {@code target} is {@code from} or one of its sub-assemblies at any level; one query per level. */
+    private boolean reaches(Long from, Long target) {
+        Set<Long> seen = new HashSet<>(List.of(from));
+        List<Long> level = List.of(from);
+        while (!level.isEmpty()) {
+            if (level.contains(target)) {
+                return true;
+            }
+            level = ProductComponent.find("id.productId in ?1", level)
+                    .project(PlanningModel.ComponentRow.class).list().stream()
+                    .map(PlanningModel.ComponentRow::componentId)
+                    .filter(seen::add)
+                    .toList();
+        }
+        return false;
     }
 }
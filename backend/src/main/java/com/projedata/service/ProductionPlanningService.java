@@ -1,76 +1,580 @@
 package com.projedata.service;
 
+import com.projedata.dto.HorizonPlanResponse;
+import com.projedata.dto.PlanCommitRequest;
 import com.projedata.dto.ProductionSuggestionResponse;
 import com.projedata.dto.ProductionSuggestionResponse.SuggestionItem;
+import com.projedata.dto.RawMaterialResponse;
+import com.projedata.dto.ScenarioRequest;
+import com.projedata.dto.ScenarioResponse;
 import com.projedata.entity.Product;
+import com.projedata.entity.ProductComponent;
 import com.projedata.entity.ProductRawMaterial;
 import com.projedata.entity.RawMaterial;
+import com.projedata.entity.ScheduledReceipt;
+import com.projedata.entity.StockMovement;
+import com.projedata.service.planning.BomExplosion;
+import com.projedata.service.planning.GreedyPlanner;
+import com.projedata.service.planning.HorizonPlanner;
+import com.projedata.service.planning.OptimalPlanSolver;
+import com.projedata.service.planning.PlanState;
+import com.projedata.service.planning.PlanningModel;
+import com.projedata.service.planning.PlanningModel.ReceiptRow;
+import com.projedata.service.planning.PlanningPeriod;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @ApplicationScoped
 public class ProductionPlanningService {
 
+    public static final int MAX_HORIZON_PERIODS = 366;
+
+    @Inject
+    Event<CatalogChanged> catalogEvents;
+
+    @Inject
+    StockLedger ledger;
+
+    @Inject
+    PlanningMetrics metrics;
+
+    @ConfigProperty(name = "planning.optimal.time-budget", defaultValue = "200ms")
+    Duration optimalTimeBudget;
+
+    // Last plan, brought up to date lazily from the writes committed since it was computed. A
+    // ReentrantLock rather than synchronized: the rebuild does JDBC under the lock, which would
+    // pin the carrier of a virtual thread. Planning reads are not @ReadOnly: the plan is cached
+    // under the version of the events it consumed, so it must be loaded from the primary, where
+    // those writes are already visible
+    private final ReentrantLock planLock = new ReentrantLock();
+    private PlanState plan;
+    private BomExplosion explosion;
+    private volatile boolean rebuildPending = true;
+    // Only ids: events of concurrent transactions are observed in thread order, not commit
+    // order, so the stock is re-read when the changes are drained
+    private final Set<Long> pendingMaterials = ConcurrentHashMap.newKeySet();
+    private final Set<Long> pendingBoms = ConcurrentHashMap.newKeySet();
+
+    // Bumped after every committed catalog write; the boot id keeps ETags unique across restarts
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong catalogVersion = new AtomicLong();
+    private volatile VersionedPlan cachedPlan;
+
     public ProductionSuggestionResponse suggest() {
-        // Step 1: fetch all products ordered by value DESC
-        List<Product> products = Product.find("ORDER BY value DESC").list();
+        return suggestVersioned().plan();
+    }
+
+    /**
+     * The greedy plan tagged with the catalog version it reflects. The response is cached until
+     * the next committed write, so repeated calls on an unchanged catalog cost a volatile read.
+     */
+    public VersionedPlan suggestVersioned() {
+        VersionedPlan cached = cachedPlan;
+        if (cached != null && cached.version() == catalogVersion.get()) {
+            metrics.planCache(true);
+            return cached;
+        }
+        planLock.lock();
+        try {
+            // Read the version before draining pending changes: writers record their change
+            // before bumping it, so the plan is never older than the version it is tagged with
+            long version = catalogVersion.get();
+            cached = cachedPlan;
+            if (cached != null && cached.version() == version) {
+                metrics.planCache(true);
+                return cached;
+            }
+            metrics.planCache(false);
+            PlanState state = currentPlan();
+            metrics.greedyPlanned(state.quantities());
+            VersionedPlan fresh = new VersionedPlan(version, bootId + "-" + version,
+                    ProductionSuggestionResponse.from(state.model(), state.quantities()));
+            cachedPlan = fresh;
+            return fresh;
+        } finally {
+            planLock.unlock();
+        }
+    }
 
-        // Step 2: build stock map rawMaterialId -> available quantity
-        Map<Long, BigDecimal> stockMap = new HashMap<>();
-        for (RawMaterial rm : RawMaterial.<RawMaterial>listAll()) {
-            stockMap.put(rm.id, rm.stockQuantity);
+    /**
+     * Snapshots the catalog for a streamed greedy plan. The pass itself runs in
+     * {@link SuggestionStream#forEach}, outside the plan lock and without building the item list.
+     */
+    public SuggestionStream streamSuggestions() {
+        planLock.lock();
+        try {
+            PlanningModel model = currentPlan().model();
+            return new SuggestionStream(model, model.stock.clone());
+        } finally {
+            planLock.unlock();
+        }
+    }
+
+    public ProductionSuggestionResponse suggestOptimal() {
+        PlanningModel model;
+        OptimalPlanSolver solver;
+        planLock.lock();
+        try {
+            model = currentPlan().model();
+            solver = new OptimalPlanSolver(model);
+        } finally {
+            planLock.unlock();
+        }
+        long start = System.nanoTime();
+        OptimalPlanSolver.Result result = solver.solve(optimalTimeBudget.toNanos());
+        metrics.optimalSolved(result.quantities(), System.nanoTime() - start);
+
+        ProductionSuggestionResponse response = ProductionSuggestionResponse.from(model, result.quantities());
+        response.optimal = result.optimal();
+        response.optimalityGap = BigDecimal.valueOf(result.gap()).setScale(4, RoundingMode.HALF_UP);
+        return response;
+    }
+
+    /**
+     * Plans every scenario against the current catalog with its stock overrides applied. The
+     * catalog is snapshotted once and the scenarios run in parallel on the common fork-join pool;
+     * nothing is written to the database.
+     */
+    public List<ScenarioResponse> evaluateScenarios(List<ScenarioRequest> scenarios) {
+        PlanningModel model;
+        long[] baseStock;
+        List<int[]> overrideIndexes = new ArrayList<>();
+        Set<Long> unknownMaterials = new TreeSet<>();
+        planLock.lock();
+        try {
+            PlanState state = currentPlan();
+            model = state.model();
+            baseStock = model.stock.clone();
+            for (ScenarioRequest scenario : scenarios) {
+                int[] indexes = new int[scenario.stockOverrides.size()];
+                for (int i = 0; i < indexes.length; i++) {
+                    Long rawMaterialId = scenario.stockOverrides.get(i).rawMaterialId;
+                    indexes[i] = state.materialIndex(rawMaterialId);
+                    if (indexes[i] < 0) {
+                        unknownMaterials.add(rawMaterialId);
+                    }
+                }
+                overrideIndexes.add(indexes);
+            }
+        } finally {
+            planLock.unlock();
+        }
+        // Materials outside the model may still exist; checked in one query, outside the lock
+        if (!unknownMaterials.isEmpty()) {
+            unknownMaterials.removeAll(RawMaterial.getEntityManager()
+                    .createQuery("SELECT id FROM RawMaterial WHERE id IN :ids", Long.class)
+                    .setParameter("ids", unknownMaterials)
+                    .getResultList());
+            if (!unknownMaterials.isEmpty()) {
+                throw new NotFoundException("Raw materials not found: " + unknownMaterials);
+            }
         }
 
-        // Step 3: greedy allocation
-        List<SuggestionItem> suggestions = new ArrayList<>();
-        BigDecimal grandTotal = BigDecimal.ZERO;
+        long start = System.nanoTime();
+        List<ScenarioResponse> responses = IntStream.range(0, scenarios.size())
+                .parallel()
+                .mapToObj(s -> {
+                    ScenarioRequest scenario = scenarios.get(s);
+                    long[] stock = baseStock.clone();
+                    int[] indexes = overrideIndexes.get(s);
+                    for (int i = 0; i < indexes.length; i++) {
+                        // Materials no product uses cannot change the plan. FLOOR, as when the model is compiled
+                        if (indexes[i] >= 0) {
+                            stock[indexes[i]] = PlanningModel.toFixedPoint(
+                                    scenario.stockOverrides.get(i).stockQuantity, RoundingMode.FLOOR);
+                        }
+                    }
+                    long[] quantities = new long[model.productCount()];
+                    GreedyPlanner.allocate(model, stock, quantities);
 
-        for (Product product : products) {
-            if (product.rawMaterials.isEmpty()) {
+                    ScenarioResponse response = new ScenarioResponse();
+                    response.name = scenario.name;
+                    response.plan = ProductionSuggestionResponse.from(model, quantities);
+                    return response;
+                })
+                .toList();
+        metrics.scenariosEvaluated(System.nanoTime() - start);
+        return responses;
+    }
+
+    /**
+     * Time-phased greedy plan over {@code periods} periods from {@code start}: each period builds
+     * with the stock left by the previous one plus the receipts scheduled within it. Receipts
+     * already overdue count in the first period. The first period is a full greedy pass and the
+     * following ones only revisit the products their receipts unblock; see {@link HorizonPlanner}.
+     */
+    public HorizonPlanResponse horizon(LocalDate start, PlanningPeriod period, int periods) {
+        List<ReceiptRow> rows = ScheduledReceipt.find("expectedOn < ?1", period.start(start, periods))
+                .project(ReceiptRow.class)
+                .list();
+
+        PlanningModel model;
+        long[] stock;
+        int[] materials = new int[rows.size()];
+        planLock.lock();
+        try {
+            PlanState state = currentPlan();
+            model = state.model();
+            stock = model.stock.clone();
+            for (int i = 0; i < materials.length; i++) {
+                materials[i] = state.materialIndex(rows.get(i).rawMaterialId());
+            }
+        } finally {
+            planLock.unlock();
+        }
+
+        long startNanos = System.nanoTime();
+        int count = 0;
+        int[] receiptPeriod = new int[rows.size()];
+        int[] receiptMaterial = new int[rows.size()];
+        long[] receiptQuantity = new long[rows.size()];
+        for (int i = 0; i < materials.length; i++) {
+            // A material the model does not know is in no BOM, so its receipts cannot change the plan
+            if (materials[i] < 0) {
                 continue;
             }
+            ReceiptRow row = rows.get(i);
+            long days = ChronoUnit.DAYS.between(start, row.expectedOn());
+            receiptPeriod[count] = days < 0 ? 0 : (int) (days / period.days);
+            receiptMaterial[count] = materials[i];
+            receiptQuantity[count] = PlanningModel.toFixedPoint(row.quantity(), RoundingMode.HALF_UP);
+            count++;
+        }
+        HorizonPlanner.Receipts receipts = HorizonPlanner.Receipts.of(periods,
+                Arrays.copyOf(receiptPeriod, count), Arrays.copyOf(receiptMaterial, count),
+                Arrays.copyOf(receiptQuantity, count));
+        List<HorizonPlanner.Period> plan = HorizonPlanner.plan(model, stock, receipts);
+        metrics.horizonPlanned(System.nanoTime() - startNanos);
+        return HorizonPlanResponse.from(model, start, period, plan);
+    }
 
-            // Step 3a/b: calculate min producible quantity across all BOM items
-            long qty = Long.MAX_VALUE;
-            for (ProductRawMaterial bom : product.rawMaterials) {
-                BigDecimal available = stockMap.getOrDefault(bom.rawMaterial.id, BigDecimal.ZERO);
-                long producible = available.divideToIntegralValue(bom.requiredQuantity).longValue();
-                qty = Math.min(qty, producible);
+    /**
+     * Consumes the stock needed to build the given quantities, sub-assemblies included, in one
+     * transaction. Each material is decremented by a guarded
+     * {@code UPDATE ... SET stock_quantity = stock_quantity - ? WHERE ... stock_quantity >= ?},
+     * all sent as one JDBC batch in id order. The database applies each decrement atomically, so
+     * concurrent commits cannot lose updates, and if any guard fails the whole commit rolls back.
+     * Each decrement is also appended to the stock ledger as a consumption.
+     *
+     * @return the new stock of every consumed raw material
+     */
+    @Transactional
+    public List<RawMaterialResponse> commit(List<PlanCommitRequest.Item> items) {
+        Map<Long, Long> quantities = new HashMap<>();
+        try {
+            for (PlanCommitRequest.Item item : items) {
+                quantities.merge(item.productId, item.quantity, Math::addExact);
             }
+        } catch (ArithmeticException e) {
+            throw new BadRequestException("Commit quantity out of range");
+        }
+        BomExplosion explosion = loadExplosion(quantities.keySet());
 
-            if (qty == Long.MAX_VALUE) {
-                qty = 0;
+        // Sorted by id so concurrent commits lock rows in the same order
+        Map<Long, BigDecimal> consumption = new TreeMap<>();
+        for (Map.Entry<Long, Long> entry : quantities.entrySet()) {
+            for (PlanningModel.BomRow row : explosion.explodedRows(entry.getKey())) {
+                consumption.merge(row.rawMaterialId(),
+                        row.requiredQuantity().multiply(BigDecimal.valueOf(entry.getValue())), BigDecimal::add);
+            }
+        }
+        if (consumption.isEmpty()) {
+            return List.of();
+        }
+        // A non-positive decrement would pass the guard and add stock under a consumption entry
+        for (Map.Entry<Long, BigDecimal> entry : consumption.entrySet()) {
+            if (entry.getValue().signum() <= 0) {
+                throw new BadRequestException("Invalid consumption for raw material " + entry.getKey());
             }
+        }
 
-            // Step 3c: deduct from stock only if something can be produced
-            if (qty > 0) {
-                for (ProductRawMaterial bom : product.rawMaterials) {
-                    BigDecimal used = bom.requiredQuantity.multiply(BigDecimal.valueOf(qty));
-                    stockMap.merge(bom.rawMaterial.id, used, BigDecimal::subtract);
+        int[] updated = RawMaterial.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE raw_materials SET stock_quantity = stock_quantity - ? WHERE id = ? AND stock_quantity >= ?")) {
+                for (Map.Entry<Long, BigDecimal> entry : consumption.entrySet()) {
+                    BigDecimal amount = entry.getValue().setScale(PlanningModel.QUANTITY_SCALE, RoundingMode.CEILING);
+                    statement.setBigDecimal(1, amount);
+                    statement.setLong(2, entry.getKey());
+                    statement.setBigDecimal(3, amount);
+                    statement.addBatch();
                 }
+                return statement.executeBatch();
             }
+        });
 
-            // Build suggestion item
-            BigDecimal totalValue = product.value.multiply(BigDecimal.valueOf(qty));
-            grandTotal = grandTotal.add(totalValue);
+        List<Long> materialIds = new ArrayList<>(consumption.keySet());
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                insufficient.add(materialIds.get(i));
+            }
+        }
+        if (!insufficient.isEmpty()) {
+            throw new ClientErrorException("Insufficient stock for raw materials: " + insufficient,
+                    Response.Status.CONFLICT);
+        }
 
-            SuggestionItem item = new SuggestionItem();
-            item.productId = product.id;
-            item.productName = product.name;
-            item.productValue = product.value;
-            item.producibleQuantity = qty;
-            item.totalValue = totalValue;
-            suggestions.add(item);
+        List<StockLedger.Movement> movements = new ArrayList<>(consumption.size());
+        for (Map.Entry<Long, BigDecimal> entry : consumption.entrySet()) {
+            movements.add(new StockLedger.Movement(entry.getKey(), StockMovement.Kind.CONSUMPTION,
+                    entry.getValue().setScale(PlanningModel.QUANTITY_SCALE, RoundingMode.CEILING).negate(),
+                    "Plan commit"));
         }
+        ledger.record(movements);
 
-        ProductionSuggestionResponse response = new ProductionSuggestionResponse();
-        response.suggestions = suggestions;
-        response.grandTotalValue = grandTotal;
-        return response;
+        List<RawMaterial> materials = RawMaterial.list("id in ?1 ORDER BY id", materialIds);
+        catalogEvents.fire(CatalogChanged.rawMaterials(consumption.keySet()));
+        return materials.stream()
+                .map(RawMaterialResponse::from)
+                .toList();
+    }
+
+    /** Drops the cached plan; needed only after writes that bypass the catalog services. */
+    public void invalidate() {
+        rebuildPending = true;
+        catalogVersion.incrementAndGet();
+    }
+
+    void onCatalogChanged(@Observes(during = TransactionPhase.AFTER_SUCCESS) CatalogChanged change) {
+        // Receipts are read by each horizon call, never cached; the greedy plan stays valid
+        if (change.kind() == CatalogChanged.Kind.SCHEDULED_RECEIPT) {
+            return;
+        }
+        switch (change.kind()) {
+            case PRODUCT, BULK -> rebuildPending = true;
+            case BOM, COMPONENT -> pendingBoms.add(change.productId());
+            // A deleted raw material is in no BOM; loadStock leaves it out
+            case RAW_MATERIAL -> pendingMaterials.addAll(change.rawMaterialIds());
+        }
+        catalogVersion.incrementAndGet();
+    }
+
+    private PlanState currentPlan() {
+        if (plan == null || rebuildPending) {
+            rebuildPending = false;
+            pendingMaterials.clear();
+            pendingBoms.clear();
+            return rebuildPlan();
+        }
+        if (pendingMaterials.isEmpty() && pendingBoms.isEmpty()) {
+            return plan;
+        }
+
+        List<Long> materialIds = new ArrayList<>();
+        for (Long materialId : pendingMaterials) {
+            pendingMaterials.remove(materialId);
+            materialIds.add(materialId);
+        }
+        Map<Long, Long> stock = loadStock(materialIds);
+        List<Long> productIds = new ArrayList<>();
+        for (Long productId : pendingBoms) {
+            pendingBoms.remove(productId);
+            productIds.add(productId);
+        }
+        if (productIds.stream().anyMatch(id -> !plan.containsProduct(id))) {
+            return rebuildPlan();
+        }
+
+        long start = System.nanoTime();
+        plan.update(stock, loadBoms(productIds, stock));
+        metrics.updated(plan.model(), System.nanoTime() - start);
+        return plan;
+    }
+
+    private PlanState rebuildPlan() {
+        long start = System.nanoTime();
+        plan = new PlanState(loadModel());
+        metrics.rebuilt(plan.model(), System.nanoTime() - start);
+        return plan;
+    }
+
+    private PlanningModel loadModel() {
+        // Four flat projection queries, independent of catalog size; no lazy BOM collections
+        List<PlanningModel.ProductRow> products = Product.find("ORDER BY value DESC")
+                .project(PlanningModel.ProductRow.class).list();
+        List<PlanningModel.BomRow> bomRows = ProductRawMaterial.findAll()
+                .project(PlanningModel.BomRow.class).list();
+        List<PlanningModel.ComponentRow> componentRows = ProductComponent.findAll()
+                .project(PlanningModel.ComponentRow.class).list();
+        List<PlanningModel.MaterialRow> materials = RawMaterial.findAll()
+                .project(PlanningModel.MaterialRow.class).list();
+        explosion = new BomExplosion(bomRows, componentRows);
+        return PlanningModel.compile(products, explosion.explodedRows(), materials);
+    }
+
+    /** BOMs of the given products and of all their sub-assemblies; one query per BOM level. */
+    private BomExplosion loadExplosion(Set<Long> productIds) {
+        List<Long> ids = new ArrayList<>(productIds);
+        Set<Long> found = Product.find("id in ?1", ids).project(PlanningModel.ProductRow.class).list().stream()
+                .map(PlanningModel.ProductRow::id)
+                .collect(Collectors.toSet());
+        for (Long id : ids) {
+            if (!found.contains(id)) {
+                throw new NotFoundException("Product not found: " + id);
+            }
+        }
+        return loadBoms(ids);
+    }
+
+    /**
+     * BOMs of the given products and of all their sub-assemblies, one query per BOM level. Shared
+     * with the capacity endpoint; unknown ids are ignored.
+     */
+    static BomExplosion loadBoms(List<Long> ids) {
+        Set<Long> seen = new HashSet<>(ids);
+        List<PlanningModel.ComponentRow> componentRows = new ArrayList<>();
+        List<Long> level = ids;
+        while (!level.isEmpty()) {
+            List<PlanningModel.ComponentRow> rows = ProductComponent.find("id.productId in ?1", level)
+                    .project(PlanningModel.ComponentRow.class).list();
+            componentRows.addAll(rows);
+            level = rows.stream()
+                    .map(PlanningModel.ComponentRow::componentId)
+                    .filter(seen::add)
+                    .toList();
+        }
+        List<PlanningModel.BomRow> bomRows = ProductRawMaterial.find("id.productId in ?1", new ArrayList<>(seen))
+                .project(PlanningModel.BomRow.class).list();
+        return new BomExplosion(bomRows, componentRows);
+    }
+
+    /**
+     * Current stock of the given raw materials, read after their writes committed, so it is at
+     * least as new as the events that marked them. Deleted materials are left out.
+     */
+    private Map<Long, Long> loadStock(List<Long> materialIds) {
+        Map<Long, Long> stock = new HashMap<>();
+        if (materialIds.isEmpty()) {
+            return stock;
+        }
+        for (PlanningModel.MaterialRow material : RawMaterial.find("id in ?1", materialIds)
+                .project(PlanningModel.MaterialRow.class).list()) {
+            stock.put(material.id(), PlanningModel.toFixedPoint(material.stockQuantity(), RoundingMode.FLOOR));
+        }
+        return stock;
+    }
+
+    /**
+     * Reloads the direct BOM of the given products and returns the exploded BOM of every product
+     * that changed as a result, sub-assembly users included. Also adds the stock of materials the
+     * plan has not seen yet.
+     */
+    private Map<Long, PlanState.Bom> loadBoms(List<Long> productIds, Map<Long, Long> stock) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, List<PlanningModel.BomRow>> materialsByProduct = new HashMap<>();
+        Map<Long, List<PlanningModel.ComponentRow>> componentsByProduct = new HashMap<>();
+        for (Long productId : productIds) {
+            materialsByProduct.put(productId, new ArrayList<>());
+            componentsByProduct.put(productId, new ArrayList<>());
+        }
+        for (PlanningModel.BomRow row : ProductRawMaterial.find("id.productId in ?1", productIds)
+                .project(PlanningModel.BomRow.class).list()) {
+            materialsByProduct.get(row.productId()).add(row);
+        }
+        for (PlanningModel.ComponentRow row : ProductComponent.find("id.productId in ?1", productIds)
+                .project(PlanningModel.ComponentRow.class).list()) {
+            componentsByProduct.get(row.productId()).add(row);
+        }
+        Set<Long> affected = new HashSet<>();
+        for (Long productId : productIds) {
+            affected.addAll(explosion.replace(productId, materialsByProduct.get(productId),
+                    componentsByProduct.get(productId)));
+        }
+
+        Map<Long, List<PlanningModel.BomRow>> rowsByProduct = new HashMap<>();
+        List<Long> unknownMaterials = new ArrayList<>();
+        for (Long productId : affected) {
+            List<PlanningModel.BomRow> rows = explosion.explodedRows(productId);
+            rowsByProduct.put(productId, rows);
+            for (PlanningModel.BomRow row : rows) {
+                if (!plan.containsMaterial(row.rawMaterialId()) && !stock.containsKey(row.rawMaterialId())) {
+                    unknownMaterials.add(row.rawMaterialId());
+                }
+            }
+        }
+        if (!unknownMaterials.isEmpty()) {
+            List<PlanningModel.MaterialRow> materials = RawMaterial.find("id in ?1", unknownMaterials)
+                    .project(PlanningModel.MaterialRow.class).list();
+            for (PlanningModel.MaterialRow material : materials) {
+                stock.put(material.id(), PlanningModel.toFixedPoint(material.stockQuantity(), RoundingMode.FLOOR));
+            }
+        }
+
+        Map<Long, PlanState.Bom> boms = new HashMap<>();
+        for (Map.Entry<Long, List<PlanningModel.BomRow>> entry : rowsByProduct.entrySet()) {
+            List<PlanningModel.BomRow> bomRows = entry.getValue();
+            long[] materialIds = new long[bomRows.size()];
+            long[] required = new long[bomRows.size()];
+            for (int i = 0; i < bomRows.size(); i++) {
+                materialIds[i] = bomRows.get(i).rawMaterialId();
+                required[i] = PlanningModel.toRequirement(bomRows.get(i).requiredQuantity());
+            }
+            boms.put(entry.getKey(), new PlanState.Bom(materialIds, required));
+        }
+        return boms;
+    }
+
+    /** A greedy pass that hands out each item as soon as its quantity is decided. */
+    public static final class SuggestionStream {
+
+        private final PlanningModel model;
+        private final long[] stock;
+
+        private SuggestionStream(PlanningModel model, long[] stock) {
+            this.model = model;
+            this.stock = stock;
+        }
+
+        /** @return the grand total value of the plan */
+        public BigDecimal forEach(Consumer<SuggestionItem> action) {
+            BigDecimal grandTotal = BigDecimal.ZERO;
+            for (int p = 0; p < model.productCount(); p++) {
+                long qty = GreedyPlanner.allocate(model, stock, p);
+                if (model.hasBom(p)) {
+                    SuggestionItem item = SuggestionItem.from(model, p, qty);
+                    grandTotal = grandTotal.add(item.totalValue);
+                    action.accept(item);
+                }
+            }
+            return grandTotal;
+        }
+    }
+
+    /** @param etag strong validator for the serialized plan, unique across restarts */
+    public record VersionedPlan(long version, String etag, ProductionSuggestionResponse plan) {
     }
 }
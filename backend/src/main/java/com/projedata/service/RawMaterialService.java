@@ -2,23 +2,80 @@ package com.projedata.service;
 
 import com.projedata.dto.RawMaterialRequest;
 import com.projedata.dto.RawMaterialResponse;
+import com.projedata.dto.ScheduledReceiptRequest;
+import com.projedata.dto.ScheduledReceiptResponse;
+import com.projedata.dto.StockAdjustmentBatchRequest;
+import com.projedata.dto.StockAdjustmentRequest;
+import com.projedata.dto.StockLevelResponse;
+import com.projedata.dto.StockMovementResponse;
 import com.projedata.entity.RawMaterial;
+import com.projedata.entity.ScheduledReceipt;
+import com.projedata.entity.StockMovement;
+import com.projedata.service.replica.ReadOnly;
+import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ClientErrorException;
 import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Response;
+import org.hibernate.Session;
 
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 
 @ApplicationScoped
 public class RawMaterialService {
 
-    public List<RawMaterialResponse> list() {
-        return RawMaterial.<RawMaterial>listAll()
-                .stream()
-                .map(RawMaterialResponse::from)
-                .toList();
+    // Deltas for the same raw material are summed. Locking in id order keeps concurrent batches
+    // from deadlocking each other. The upper bound is the largest value stock_quantity
+    // (DECIMAL(15,4)) can hold; past it the update would fail with a numeric overflow.
+    private static final String ADJUST_STOCK = """
+            WITH delta AS (
+                SELECT id, SUM(quantity) AS quantity
+                FROM unnest(?, ?) AS t(id, quantity)
+                GROUP BY id
+            ), locked AS (
+                SELECT r.id FROM raw_materials r JOIN delta d ON d.id = r.id
+                ORDER BY r.id
+                FOR NO KEY UPDATE OF r
+            )
+            UPDATE raw_materials r SET stock_quantity = r.stock_quantity + d.quantity
+            FROM delta d JOIN locked l ON l.id = d.id
+            WHERE r.id = d.id AND r.stock_quantity + d.quantity >= 0
+              AND r.stock_quantity + d.quantity < 100000000000
+            RETURNING r.id, r.stock_quantity""";
+
+    private static final Map<String, Keyset.SortColumn<RawMaterialResponse>> SORT_COLUMNS = Map.of(
+            "id", new Keyset.SortColumn<>("id", row -> row.id, Long::valueOf),
+            "name", new Keyset.SortColumn<>("name", row -> row.name, value -> value),
+            "stockQuantity", new Keyset.SortColumn<>("stockQuantity", row -> row.stockQuantity, BigDecimal::new));
+
+    @Inject
+    Event<CatalogChanged> catalogEvents;
+
+    @Inject
+    StockLedger ledger;
+
+    @ReadOnly
+    public Keyset.Page<RawMaterialResponse> list(String name, String sort, String order, String cursor, Integer limit) {
+        return Keyset.page((query, s, params) -> RawMaterial.find(query, s, params), RawMaterialResponse.class,
+                row -> row.id, SORT_COLUMNS, sort, order, name, cursor, limit);
     }
 
+    @ReadOnly
     public RawMaterialResponse findById(Long id) {
         RawMaterial entity = RawMaterial.findById(id);
         if (entity == null) {
@@ -30,20 +87,34 @@ public class RawMaterialService {
     @Transactional
     public RawMaterialResponse create(RawMaterialRequest request) {
         RawMaterial entity = new RawMaterial();
+        checkCodeAvailable(request.code, null);
         entity.name = request.name;
+        entity.code = request.code;
         entity.stockQuantity = request.stockQuantity;
         entity.persist();
+        ledger.record(List.of(new StockLedger.Movement(entity.id, StockMovement.Kind.RECEIPT,
+                entity.stockQuantity, "Initial stock")));
+        catalogEvents.fire(CatalogChanged.rawMaterial(entity.id));
         return RawMaterialResponse.from(entity);
     }
 
     @Transactional
     public RawMaterialResponse update(Long id, RawMaterialRequest request) {
-        RawMaterial entity = RawMaterial.findById(id);
+        // Locked so that concurrent updates apply in turn and the ledger records each difference
+        RawMaterial entity = RawMaterial.findById(id, LockModeType.PESSIMISTIC_WRITE);
         if (entity == null) {
             throw new NotFoundException("Raw material not found: " + id);
         }
+        // Clients that do not know about codes (e.g. the frontend) leave them untouched
+        if (request.code != null) {
+            checkCodeAvailable(request.code, id);
+            entity.code = request.code;
+        }
         entity.name = request.name;
+        BigDecimal change = request.stockQuantity.subtract(entity.stockQuantity);
         entity.stockQuantity = request.stockQuantity;
+        ledger.record(List.of(new StockLedger.Movement(id, StockMovement.Kind.ADJUSTMENT, change, null)));
+        catalogEvents.fire(CatalogChanged.rawMaterial(id));
         return RawMaterialResponse.from(entity);
     }
 
@@ -54,5 +125,163 @@ public class RawMaterialService {
             throw new NotFoundException("Raw material not found: " + id);
         }
         entity.delete();
+        catalogEvents.fire(CatalogChanged.rawMaterial(id));
+    }
+
+    /**
+     * Applies signed stock deltas with one statement,
+     * {@code UPDATE ... SET stock_quantity = stock_quantity + delta}, guarded so that no stock
+     * goes negative or past the column range. Nothing is read first, so concurrent receipts cannot overwrite each other.
+     * Rows are locked in id order, and if any raw material is unknown or out of range the whole
+     * batch rolls back. Each item is also appended to the stock ledger.
+     *
+     * @return the new stock of every adjusted raw material, by id
+     */
+    @Transactional
+    public List<StockLevelResponse> adjust(List<StockAdjustmentBatchRequest.Item> items) {
+        List<StockLedger.Movement> movements = new ArrayList<>(items.size());
+        for (StockAdjustmentBatchRequest.Item item : items) {
+            movements.add(new StockLedger.Movement(item.rawMaterialId, movementKind(item), item.delta, item.reference));
+        }
+
+        Session session = RawMaterial.getEntityManager().unwrap(Session.class);
+        Map<Long, BigDecimal> adjusted = session.doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(ADJUST_STOCK)) {
+                statement.setArray(1, connection.createArrayOf("bigint",
+                        items.stream().map(item -> item.rawMaterialId).toArray()));
+                statement.setArray(2, connection.createArrayOf("numeric",
+                        items.stream().map(item -> item.delta).toArray()));
+                Map<Long, BigDecimal> stock = new TreeMap<>();
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        stock.put(result.getLong(1), result.getBigDecimal(2));
+                    }
+                }
+                return stock;
+            }
+        });
+
+        Set<Long> failed = new TreeSet<>();
+        for (StockAdjustmentBatchRequest.Item item : items) {
+            if (!adjusted.containsKey(item.rawMaterialId)) {
+                failed.add(item.rawMaterialId);
+            }
+        }
+        if (!failed.isEmpty()) {
+            List<Long> existing = RawMaterial.getEntityManager()
+                    .createQuery("SELECT id FROM RawMaterial WHERE id IN :ids", Long.class)
+                    .setParameter("ids", failed)
+                    .getResultList();
+            failed.removeAll(existing);
+            if (!failed.isEmpty()) {
+                throw new NotFoundException("Raw materials not found: " + failed);
+            }
+            Map<Long, BigDecimal> deltas = new HashMap<>();
+            for (StockAdjustmentBatchRequest.Item item : items) {
+                deltas.merge(item.rawMaterialId, item.delta, BigDecimal::add);
+            }
+            List<Long> insufficient = existing.stream().filter(id -> deltas.get(id).signum() < 0).sorted().toList();
+            if (!insufficient.isEmpty()) {
+                throw new ClientErrorException("Insufficient stock for raw materials: " + insufficient,
+                        Response.Status.CONFLICT);
+            }
+            throw new ClientErrorException("Stock would exceed 99999999999.9999 for raw materials: "
+                    + existing.stream().sorted().toList(), Response.Status.CONFLICT);
+        }
+
+        ledger.record(movements);
+        List<StockLevelResponse> response = new ArrayList<>(adjusted.size());
+        catalogEvents.fire(CatalogChanged.rawMaterials(adjusted.keySet()));
+        for (Map.Entry<Long, BigDecimal> entry : adjusted.entrySet()) {
+            StockLevelResponse dto = new StockLevelResponse();
+            dto.rawMaterialId = entry.getKey();
+            dto.stockQuantity = entry.getValue();
+            response.add(dto);
+        }
+        return response;
+    }
+
+    /** Newest first. */
+    @ReadOnly
+    public List<StockMovementResponse> listMovements(Long id, int limit) {
+        requireExists(id);
+        return StockMovement.<StockMovement>find("rawMaterialId = ?1", Sort.descending("createdAt", "id"), id)
+                .range(0, limit - 1)
+                .stream()
+                .map(StockMovementResponse::from)
+                .toList();
+    }
+
+    /** @param at {@code null} for the current stock */
+    @ReadOnly
+    public StockLevelResponse stockLevel(Long id, OffsetDateTime at) {
+        StockLevelResponse dto = new StockLevelResponse();
+        dto.rawMaterialId = id;
+        dto.at = at;
+        if (at == null) {
+            dto.stockQuantity = findById(id).stockQuantity;
+        } else {
+            requireExists(id);
+            dto.stockQuantity = ledger.stockAt(id, at);
+        }
+        return dto;
+    }
+
+    /** Deliveries still expected, earliest first; see {@link ProductionPlanningService#horizon}. */
+    @ReadOnly
+    public List<ScheduledReceiptResponse> listScheduledReceipts(Long id) {
+        requireExists(id);
+        return ScheduledReceipt.<ScheduledReceipt>find("rawMaterialId", Sort.by("expectedOn").and("id"), id)
+                .stream()
+                .map(ScheduledReceiptResponse::from)
+                .toList();
+    }
+
+    @Transactional
+    public ScheduledReceiptResponse scheduleReceipt(Long id, ScheduledReceiptRequest request) {
+        requireExists(id);
+        ScheduledReceipt entity = new ScheduledReceipt();
+        entity.rawMaterialId = id;
+        entity.expectedOn = request.expectedOn;
+        entity.quantity = request.quantity;
+        entity.reference = request.reference;
+        entity.persist();
+        catalogEvents.fire(CatalogChanged.scheduledReceipt(id));
+        return ScheduledReceiptResponse.from(entity);
+    }
+
+    @Transactional
+    public void cancelScheduledReceipt(Long id, Long receiptId) {
+        if (ScheduledReceipt.delete("id = ?1 AND rawMaterialId = ?2", receiptId, id) == 0) {
+            throw new NotFoundException("Scheduled receipt not found: " + receiptId);
+        }
+        catalogEvents.fire(CatalogChanged.scheduledReceipt(id));
+    }
+
+    private static StockMovement.Kind movementKind(StockAdjustmentRequest request) {
+        if (request.delta.signum() == 0) {
+            throw new BadRequestException("delta must not be zero");
+        }
+        if (request.kind == null) {
+            return request.delta.signum() > 0 ? StockMovement.Kind.RECEIPT : StockMovement.Kind.ADJUSTMENT;
+        }
+        if (request.kind == StockMovement.Kind.RECEIPT && request.delta.signum() <= 0
+                || request.kind == StockMovement.Kind.CONSUMPTION && request.delta.signum() >= 0) {
+            throw new BadRequestException(request.kind + " requires a "
+                    + (request.kind == StockMovement.Kind.RECEIPT ? "positive" : "negative") + " delta");
+        }
+        return request.kind;
+    }
+
+    private void requireExists(Long id) {
+        if (RawMaterial.count("id", id) == 0) {
+            throw new NotFoundException("Raw material not found: " + id);
+        }
+    }
+
+    private void checkCodeAvailable(String code, Long id) {
+        if (code != null && RawMaterial.count("code = ?1 AND id <> ?2", code, id == null ? -1L : id) > 0) {
+            throw new BadRequestException("Raw material code already in use: " + code);
+        }
     }
 }
@@ -0,0 +1,153 @@
+package com.projedata.service;
+
+import com.projedata.entity.RawMaterial;
+import com.projedata.entity.StockMovement;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.transaction.Transactional;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.hibernate.Session;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+/**
+ * Append-only history of every stock change. {@code raw_materials.stock_quantity} stays the
+ * running balance, changed in the same transaction as each movement so current stock is still a
+ * single-row read. Past balances come from the latest snapshot before the requested instant plus
+ * the movements after it, and {@link #compact()} adds snapshots in the background so that tail
+ * stays short.
+ *
+ * <p>Movements and snapshots are deleted with their raw material (ON DELETE CASCADE): a deleted
+ * raw material has no stock left to ask about, and keeping its history would block the delete.
+ * Append-only holds for every raw material that still exists.
+ */
+@ApplicationScoped
+public class StockLedger {
+
+    private static final String INSERT_MOVEMENT =
+            "INSERT INTO stock_movements (raw_material_id, kind, quantity, reference) VALUES (?, ?, ?, ?)";
+
+    // A movement is dated by clock_timestamp(), never before its transaction started, so a
+    // snapshot taken before the oldest open transaction cannot miss a later commit. Other
+    // sessions' xact_start bounds it, and stock.snapshot.grace stays as a floor.
+    private static final String SNAPSHOT_BOUND = """
+            SELECT LEAST(now() - CAST(? AS interval), COALESCE((
+                SELECT min(xact_start) - interval '1 microsecond' FROM pg_stat_activity
+                WHERE datname = current_database() AND backend_type = 'client backend'
+                  AND pid <> pg_backend_pid()
+            ), 'infinity'))""";
+
+    private static final String COMPACT = """
+            WITH last AS (
+                SELECT DISTINCT ON (raw_material_id) raw_material_id, as_of, quantity
+                FROM stock_snapshots
+                ORDER BY raw_material_id, as_of DESC
+            ), bound AS (
+                SELECT CAST(? AS timestamptz) AS as_of
+            )
+            INSERT INTO stock_snapshots (raw_material_id, as_of, quantity)
+            SELECT m.raw_material_id, b.as_of, COALESCE(l.quantity, 0) + SUM(m.quantity)
+            FROM stock_movements m
+            CROSS JOIN bound b
+            LEFT JOIN last l ON l.raw_material_id = m.raw_material_id
+            WHERE m.created_at > COALESCE(l.as_of, '-infinity') AND m.created_at <= b.as_of
+            GROUP BY m.raw_material_id, b.as_of, l.quantity
+            ON CONFLICT DO NOTHING""";
+
+    private static final String STOCK_AT = """
+            SELECT COALESCE(s.quantity, 0) + COALESCE((
+                SELECT SUM(m.quantity) FROM stock_movements m
+                WHERE m.raw_material_id = ? AND m.created_at > COALESCE(s.as_of, '-infinity') AND m.created_at <= ?
+            ), 0)
+            FROM (SELECT 1) one
+            LEFT JOIN LATERAL (
+                SELECT as_of, quantity FROM stock_snapshots
+                WHERE raw_material_id = ? AND as_of <= ?
+                ORDER BY as_of DESC
+                LIMIT 1
+            ) s ON true""";
+
+    /** @param quantity signed change; zero is not recorded */
+    public record Movement(long rawMaterialId, StockMovement.Kind kind, BigDecimal quantity, String reference) {
+    }
+
+    @ConfigProperty(name = "stock.snapshot.grace", defaultValue = "2m")
+    Duration snapshotGrace;
+
+    /** Appends the movements to the current transaction with one JDBC batch. */
+    public void record(List<Movement> movements) {
+        Session session = RawMaterial.getEntityManager().unwrap(Session.class);
+        // Rows persisted through Hibernate (e.g. a new raw material) must exist before they are referenced
+        session.flush();
+        session.doWork(connection -> insert(connection, movements));
+    }
+
+    /** {@link #record} for callers already working on a JDBC connection. */
+    public static void insert(Connection connection, List<Movement> movements) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_MOVEMENT)) {
+            int batched = 0;
+            for (Movement movement : movements) {
+                if (movement.quantity().signum() == 0) {
+                    continue;
+                }
+                statement.setLong(1, movement.rawMaterialId());
+                statement.setString(2, movement.kind().name());
+                statement.setBigDecimal(3, movement.quantity());
+                statement.setString(4, movement.reference());
+                statement.addBatch();
+                batched++;
+            }
+            if (batched > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+
+    /** @return the stock of the raw material at {@code at}; zero before its first movement */
+    public BigDecimal stockAt(long rawMaterialId, OffsetDateTime at) {
+        return RawMaterial.getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(STOCK_AT)) {
+                statement.setLong(1, rawMaterialId);
+                statement.setObject(2, at);
+                statement.setLong(3, rawMaterialId);
+                statement.setObject(4, at);
+                try (ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    return result.getBigDecimal(1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Snapshots every raw material with movements since its last snapshot. The bound is read in
+     * its own statement so that, under READ COMMITTED, the insert sees every transaction that had
+     * already committed when the bound was taken.
+     */
+    @Scheduled(every = "{stock.snapshot.interval}", delayed = "{stock.snapshot.interval}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Transactional
+    public void compact() {
+        RawMaterial.getEntityManager().unwrap(Session.class).doWork(connection -> {
+            OffsetDateTime asOf;
+            try (PreparedStatement statement = connection.prepareStatement(SNAPSHOT_BOUND)) {
+                statement.setString(1, snapshotGrace.toSeconds() + " seconds");
+                try (ResultSet result = statement.executeQuery()) {
+                    result.next();
+                    asOf = result.getObject(1, OffsetDateTime.class);
+                }
+            }
+            try (PreparedStatement statement = connection.prepareStatement(COMPACT)) {
+                statement.setObject(1, asOf);
+                statement.executeUpdate();
+            }
+        });
+    }
+}
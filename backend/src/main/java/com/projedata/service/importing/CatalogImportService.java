@@ -0,0 +1,341 @@
+package com.projedata.service.importing;
+
+import com.projedata.dto.ImportResponse;
+import com.projedata.entity.Product;
+import com.projedata.entity.RawMaterial;
+import com.projedata.entity.StockMovement;
+import com.projedata.service.CatalogChanged;
+import com.projedata.service.StockLedger;
+import com.projedata.service.importing.RecordReader.Record;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
+import jakarta.transaction.Transactional;
+import org.hibernate.Session;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Bulk import of raw materials, products and BOM rows.
+ *
+ * <p>The input is read one record at a time and written in chunks of {@link #CHUNK_SIZE} rows
+ * with JDBC batches, which the driver rewrites into multi-row inserts. Ids are taken from the
+ * pooled sequences in blocks, as Hibernate does, so a chunk costs one sequence query. Rows are
+ * upserts: a raw material or product whose {@code code} exists is updated, as is a BOM row for an
+ * existing product and raw material pair. Stock changes are appended to the stock ledger in the
+ * same transaction. Invalid rows are reported and skipped; everything else commits in one
+ * transaction.
+ */
+@ApplicationScoped
+public class CatalogImportService {
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    // Must match INCREMENT BY of the id sequences (V6) and allocationSize of the entities
+    private static final int ID_BLOCK = 50;
+
+    private static final String UPSERT_RAW_MATERIAL = """
+            INSERT INTO raw_materials (id, code, name, stock_quantity) VALUES (?, ?, ?, ?)
+            ON CONFLICT (code) DO UPDATE SET name = EXCLUDED.name, stock_quantity = EXCLUDED.stock_quantity""";
+    private static final String UPSERT_PRODUCT = """
+            INSERT INTO products (id, code, name, value) VALUES (?, ?, ?, ?)
+            ON CONFLICT (code) DO UPDATE SET name = EXCLUDED.name, value = EXCLUDED.value""";
+    private static final String UPSERT_BOM = """
+            INSERT INTO product_raw_materials (product_id, raw_material_id, required_quantity) VALUES (?, ?, ?)
+            ON CONFLICT (product_id, raw_material_id) DO UPDATE SET required_quantity = EXCLUDED.required_quantity""";
+
+    @Inject
+    Event<CatalogChanged> catalogEvents;
+
+    /** Fields: {@code code} (optional), {@code name}, {@code stockQuantity}. */
+    @Transactional
+    public ImportResponse importRawMaterials(RecordReader reader) {
+        Set<String> codes = new HashSet<>();
+        return run(reader.require("name", "stockQuantity"), record -> new CatalogRow(
+                        uniqueCode(record, codes),
+                        name(record),
+                        decimal(record, "stockQuantity", BigDecimal.ZERO, 4)),
+                CatalogImportService::upsertRawMaterials);
+    }
+
+    /** Fields: {@code code} (optional), {@code name}, {@code value}. */
+    @Transactional
+    public ImportResponse importProducts(RecordReader reader) {
+        Set<String> codes = new HashSet<>();
+        return run(reader.require("name", "value"), record -> new CatalogRow(
+                        uniqueCode(record, codes),
+                        name(record),
+                        decimal(record, "value", new BigDecimal("0.01"), 2)),
+                (connection, rows) -> upsertCatalogRows(connection, UPSERT_PRODUCT, "products_id_seq", rows));
+    }
+
+    /**
+     * Fields: {@code product}, {@code rawMaterial}, {@code requiredQuantity}. References are
+     * resolved by code first and then by name, which must then be unambiguous.
+     */
+    @Transactional
+    public ImportResponse importBom(RecordReader reader) {
+        References products = new References("Product",
+                Product.findAll().project(Reference.class).list());
+        References rawMaterials = new References("Raw material",
+                RawMaterial.findAll().project(Reference.class).list());
+        // A multi-row upsert may not touch the same row twice
+        Set<List<Long>> pairs = new HashSet<>();
+        return run(reader.require("product", "rawMaterial", "requiredQuantity"), record -> {
+                    long productId = products.resolve(required(record, "product"));
+                    long rawMaterialId = rawMaterials.resolve(required(record, "rawMaterial"));
+                    BigDecimal requiredQuantity = decimal(record, "requiredQuantity", new BigDecimal("0.0001"), 4);
+                    if (!pairs.add(List.of(productId, rawMaterialId))) {
+                        throw new RowException("Duplicate BOM row for this product and raw material");
+                    }
+                    return new BomRow(productId, rawMaterialId, requiredQuantity);
+                },
+                this::upsertBomRows);
+    }
+
+    private <T> ImportResponse run(RecordReader reader, Function<Record, T> parser, ChunkWriter<T> writer) {
+        ImportResponse response = new ImportResponse();
+        Session session = Product.getEntityManager().unwrap(Session.class);
+        session.doWork(connection -> {
+            List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+            try {
+                for (Record record = reader.next(); record != null; record = reader.next()) {
+                    try {
+                        if (record.error() != null) {
+                            throw new RowException(record.error());
+                        }
+                        chunk.add(parser.apply(record));
+                    } catch (RowException e) {
+                        response.rejected++;
+                        if (response.errors.size() < MAX_REPORTED_ERRORS) {
+                            response.errors.add(new ImportResponse.RowError(record.line(), e.getMessage()));
+                        }
+                    }
+                    if (chunk.size() == CHUNK_SIZE) {
+                        writer.write(connection, chunk);
+                        response.imported += chunk.size();
+                        chunk.clear();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (!chunk.isEmpty()) {
+                writer.write(connection, chunk);
+                response.imported += chunk.size();
+            }
+        });
+        if (response.imported > 0) {
+            catalogEvents.fire(CatalogChanged.bulk());
+        }
+        return response;
+    }
+
+    /**
+     * Also appends the stock changes to the ledger: a receipt of the whole stock for new rows and
+     * an adjustment by the difference for updated ones.
+     */
+    private static void upsertRawMaterials(Connection connection, List<CatalogRow> rows) throws SQLException {
+        // Locked until commit, so the differences recorded are the ones applied
+        Map<String, Long> existingIds = new HashMap<>();
+        Map<String, BigDecimal> existingStock = new HashMap<>();
+        List<String> codes = rows.stream().map(CatalogRow::code).filter(Objects::nonNull).toList();
+        if (!codes.isEmpty()) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT code, id, stock_quantity FROM raw_materials WHERE code = ANY (?) FOR UPDATE")) {
+                statement.setArray(1, connection.createArrayOf("varchar", codes.toArray()));
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        existingIds.put(result.getString(1), result.getLong(2));
+                        existingStock.put(result.getString(1), result.getBigDecimal(3));
+                    }
+                }
+            }
+        }
+
+        long[] ids = upsertCatalogRows(connection, UPSERT_RAW_MATERIAL, "raw_materials_id_seq", rows);
+
+        List<StockLedger.Movement> movements = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            CatalogRow row = rows.get(i);
+            Long existingId = row.code() == null ? null : existingIds.get(row.code());
+            movements.add(existingId == null
+                    ? new StockLedger.Movement(ids[i], StockMovement.Kind.RECEIPT, row.amount(), "Bulk import")
+                    : new StockLedger.Movement(existingId, StockMovement.Kind.ADJUSTMENT,
+                            row.amount().subtract(existingStock.get(row.code())), "Bulk import"));
+        }
+        StockLedger.insert(connection, movements);
+    }
+
+    /** @return the id allocated to each row; rows that updated an existing code kept their id */
+    private static long[] upsertCatalogRows(Connection connection, String sql, String sequence, List<CatalogRow> rows)
+            throws SQLException {
+        long[] ids = allocateIds(connection, sequence, rows.size());
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < rows.size(); i++) {
+                CatalogRow row = rows.get(i);
+                statement.setLong(1, ids[i]);
+                statement.setString(2, row.code());
+                statement.setString(3, row.name());
+                statement.setBigDecimal(4, row.amount());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        return ids;
+    }
+
+    private void upsertBomRows(Connection connection, List<BomRow> rows) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(UPSERT_BOM)) {
+            for (BomRow row : rows) {
+                statement.setLong(1, row.productId());
+                statement.setLong(2, row.rawMaterialId());
+                statement.setBigDecimal(3, row.requiredQuantity());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /** Each sequence value {@code v} reserves the ids {@code v - 49 .. v}; leftovers are skipped. */
+    private static long[] allocateIds(Connection connection, String sequence, int count) throws SQLException {
+        long[] ids = new long[count];
+        int blocks = (count + ID_BLOCK - 1) / ID_BLOCK;
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT nextval('" + sequence + "') FROM generate_series(1, ?)")) {
+            statement.setInt(1, blocks);
+            try (ResultSet result = statement.executeQuery()) {
+                int i = 0;
+                while (result.next() && i < count) {
+                    long high = result.getLong(1);
+                    for (long id = high - ID_BLOCK + 1; id <= high && i < count; id++) {
+                        ids[i++] = id;
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static String name(Record record) {
+        String name = required(record, "name");
+        if (name.length() > 255) {
+            throw new RowException("name must be at most 255 characters");
+        }
+        return name;
+    }
+
+    private static String uniqueCode(Record record, Set<String> seen) {
+        String code = record.get("code");
+        if (code == null) {
+            return null;
+        }
+        if (code.length() > 64) {
+            throw new RowException("code must be at most 64 characters");
+        }
+        if (!seen.add(code)) {
+            throw new RowException("Duplicate code in import: " + code);
+        }
+        return code;
+    }
+
+    private static String required(Record record, String field) {
+        String value = record.get(field);
+        if (value == null) {
+            throw new RowException(field + " is required");
+        }
+        return value;
+    }
+
+    /** Parses a DECIMAL(15, scale) column value that must be at least {@code min}. */
+    private static BigDecimal decimal(Record record, String field, BigDecimal min, int scale) {
+        BigDecimal value;
+        try {
+            value = new BigDecimal(required(record, field));
+        } catch (NumberFormatException e) {
+            throw new RowException(field + " is not a number: " + record.get(field));
+        }
+        if (value.compareTo(min) < 0) {
+            throw new RowException(field + " must be at least " + min.toPlainString());
+        }
+        if (value.stripTrailingZeros().scale() > scale) {
+            throw new RowException(field + " must have at most " + scale + " decimal places");
+        }
+        if (value.precision() - value.scale() > 15 - scale) {
+            throw new RowException(field + " is too large");
+        }
+        return value;
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        void write(Connection connection, List<T> rows) throws SQLException;
+    }
+
+    /** A rejected row; the message is reported with its line number. */
+    private static final class RowException extends RuntimeException {
+        RowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /** {@code amount} is the stock quantity of a raw material or the value of a product. */
+    private record CatalogRow(String code, String name, BigDecimal amount) {
+    }
+
+    private record BomRow(long productId, long rawMaterialId, BigDecimal requiredQuantity) {
+    }
+
+    public record Reference(Long id, String code, String name) {
+    }
+
+    /** Lookup of existing rows by code and by name; a name shared by several rows resolves to none. */
+    private static final class References {
+
+        private final String label;
+        private final Map<String, Long> byCode = new HashMap<>();
+        private final Map<String, Long> byName = new HashMap<>();
+        private final Set<String> ambiguousNames = new HashSet<>();
+
+        References(String label, List<Reference> rows) {
+            this.label = label;
+            for (Reference row : rows) {
+                if (row.code() != null) {
+                    byCode.put(row.code(), row.id());
+                }
+                if (byName.putIfAbsent(row.name(), row.id()) != null) {
+                    ambiguousNames.add(row.name());
+                }
+            }
+        }
+
+        long resolve(String reference) {
+            Long id = byCode.get(reference);
+            if (id != null) {
+                return id;
+            }
+            if (ambiguousNames.contains(reference)) {
+                throw new RowException(label + " name is ambiguous, use its code: " + reference);
+            }
+            id = byName.get(reference);
+            if (id == null) {
+                throw new RowException(label + " not found: " + reference);
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.projedata.service.importing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.ws.rs.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streams import records one line at a time, so memory use does not depend on the input size.
+ * Reads CSV with a header row (quoted fields may contain commas and doubled quotes, but not line
+ * breaks) or JSON lines with one object per line. Field names are case-insensitive, blank lines
+ * are skipped and a leading UTF-8 byte-order mark is ignored. A CSV header that cannot be parsed
+ * or lacks a {@link #require required} column fails the whole import with a 400.
+ */
+public abstract class RecordReader {
+
+    protected final BufferedReader reader;
+    protected long line;
+    protected List<String> requiredFields = List.of();
+
+    private RecordReader(InputStream input) {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    }
+
+    public static RecordReader csv(InputStream input) {
+        return new Csv(input);
+    }
+
+    public static RecordReader jsonLines(InputStream input, ObjectMapper mapper) {
+        return new JsonLines(input, mapper);
+    }
+
+    /** Fields every record needs. Checked once against the CSV header; JSON lines are left to the importer. */
+    public RecordReader require(String... fields) {
+        requiredFields = Arrays.stream(fields).map(field -> field.toLowerCase(Locale.ROOT)).toList();
+        return this;
+    }
+
+    /** @return the next record, or {@code null} at the end of the input */
+    public Record next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+            // Excel and many ERP exports start UTF-8 files with a byte-order mark
+            if (line == 1 && text.startsWith("\uFEFF")) {
+                text = text.substring(1);
+            }
+        } while (text.isBlank());
+        return parse(text);
+    }
+
+    protected abstract Record parse(String text) throws IOException;
+
+    /**
+     * One input line: its fields by lower-case name, or why it could not be parsed.
+     *
+     * @param line 1-based line number in the input
+     */
+    public record Record(long line, Map<String, String> fields, String error) {
+
+        /** @return the trimmed value, or {@code null} when missing or blank */
+        public String get(String field) {
+            String value = fields.get(field.toLowerCase(Locale.ROOT));
+            return value == null || value.isBlank() ? null : value.trim();
+        }
+    }
+
+    private static final class Csv extends RecordReader {
+
+        private List<String> header;
+
+        private Csv(InputStream input) {
+            super(input);
+        }
+
+        @Override
+        public Record next() throws IOException {
+            // The first call reads the header, or fails
+            if (header == null && super.next() == null) {
+                return null;
+            }
+            return super.next();
+        }
+
+        @Override
+        protected Record parse(String text) {
+            if (header == null) {
+                readHeader(text);
+                return new Record(line, Map.of(), null);
+            }
+            List<String> values = split(text);
+            if (values == null) {
+                return new Record(line, Map.of(), "Unterminated quoted field");
+            }
+            if (values.size() != header.size()) {
+                return new Record(line, Map.of(), "Expected " + header.size() + " fields, got " + values.size());
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                fields.put(header.get(i), values.get(i));
+            }
+            return new Record(line, fields, null);
+        }
+
+        private void readHeader(String text) {
+            List<String> names = split(text);
+            if (names == null) {
+                throw new BadRequestException("Invalid CSV header on line " + line + ": unterminated quoted field");
+            }
+            header = names.stream().map(name -> name.trim().toLowerCase(Locale.ROOT)).toList();
+            List<String> missing = requiredFields.stream().filter(field -> !header.contains(field)).toList();
+            if (!missing.isEmpty()) {
+                throw new BadRequestException("CSV header is missing columns: " + missing);
+            }
+        }
+
+        /** @return the fields of the line, or {@code null} if a quote is left open */
+        private static List<String> split(String text) {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        value.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            if (quoted) {
+                return null;
+            }
+            values.add(value.toString());
+            return values;
+        }
+    }
+
+    private static final class JsonLines extends RecordReader {
+
+        private final ObjectReader json;
+
+        private JsonLines(InputStream input, ObjectMapper mapper) {
+            super(input);
+            // Keeps decimals exact instead of going through double
+            this.json = mapper.reader().with(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+        }
+
+        @Override
+        protected Record parse(String text) {
+            JsonNode node;
+            try {
+                node = json.readTree(text);
+            } catch (JsonProcessingException e) {
+                return new Record(line, Map.of(), "Invalid JSON: " + e.getOriginalMessage());
+            }
+            if (!node.isObject()) {
+                return new Record(line, Map.of(), "Expected a JSON object");
+            }
+            Map<String, String> fields = new HashMap<>();
+            for (Map.Entry<String, JsonNode> field : node.properties()) {
+                JsonNode value = field.getValue();
+                if (!value.isNull()) {
+                    fields.put(field.getKey().toLowerCase(Locale.ROOT),
+                            value.isNumber() ? value.decimalValue().toPlainString() : value.asText());
+                }
+            }
+            return new Record(line, fields, null);
+        }
+    }
+}
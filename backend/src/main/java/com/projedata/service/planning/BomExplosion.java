@@ -0,0 +1,138 @@
+package com.projedata.service.planning;
+
+import com.projedata.service.planning.PlanningModel.BomRow;
+import com.projedata.service.planning.PlanningModel.ComponentRow;
+
+import java.math.BigDecimal;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Multi-level BOMs flattened down to raw materials, so the planner only ever sees single-level
+ * BOMs. Building one unit of a product consumes its own raw materials plus, for every
+ * sub-assembly, the sub-assembly's exploded BOM times the required quantity.
+ *
+ * <p>Each explosion is computed once and memoized. Replacing a product's direct BOM drops the
+ * memo of that product and of every product that uses it at any level. The walk is iterative,
+ * and a component that would close a cycle is ignored. The services reject such components, so
+ * that only matters for concurrent writes. Not thread-safe; callers serialize access.
+ */
+public final class BomExplosion {
+
+    private final Map<Long, List<BomRow>> materials = new HashMap<>();
+    private final Map<Long, List<ComponentRow>> components = new HashMap<>();
+    private final Map<Long, Set<Long>> parents = new HashMap<>();
+    private final Map<Long, Map<Long, BigDecimal>> exploded = new HashMap<>();
+
+    /**
+     * @param bomRows       every raw material BOM row
+     * @param componentRows every sub-assembly BOM row
+     */
+    public BomExplosion(List<BomRow> bomRows, List<ComponentRow> componentRows) {
+        for (BomRow row : bomRows) {
+            materials.computeIfAbsent(row.productId(), id -> new ArrayList<>()).add(row);
+        }
+        for (ComponentRow row : componentRows) {
+            components.computeIfAbsent(row.productId(), id -> new ArrayList<>()).add(row);
+            parents.computeIfAbsent(row.componentId(), id -> new HashSet<>()).add(row.productId());
+        }
+    }
+
+    /** Exploded rows of every product that has a BOM at any level, for {@link PlanningModel#compile}. */
+    public List<BomRow> explodedRows() {
+        Set<Long> productIds = new LinkedHashSet<>(materials.keySet());
+        productIds.addAll(components.keySet());
+        List<BomRow> rows = new ArrayList<>();
+        for (Long productId : productIds) {
+            rows.addAll(explodedRows(productId));
+        }
+        return rows;
+    }
+
+    /** @return the product's raw material requirements per unit, across all levels */
+    public List<BomRow> explodedRows(long productId) {
+        Map<Long, BigDecimal> requirements = explode(productId);
+        List<BomRow> rows = new ArrayList<>(requirements.size());
+        for (Map.Entry<Long, BigDecimal> entry : requirements.entrySet()) {
+            rows.add(new BomRow(productId, entry.getKey(), entry.getValue()));
+        }
+        return rows;
+    }
+
+    /**
+     * Replaces the direct BOM of a product.
+     *
+     * @return the product and every product that uses it at any level; their explosions changed
+     */
+    public Set<Long> replace(long productId, List<BomRow> bomRows, List<ComponentRow> componentRows) {
+        for (ComponentRow row : components.getOrDefault(productId, List.of())) {
+            parents.get(row.componentId()).remove(productId);
+        }
+        materials.put(productId, new ArrayList<>(bomRows));
+        components.put(productId, new ArrayList<>(componentRows));
+        for (ComponentRow row : componentRows) {
+            parents.computeIfAbsent(row.componentId(), id -> new HashSet<>()).add(productId);
+        }
+
+        Set<Long> affected = new HashSet<>();
+        Deque<Long> pending = new ArrayDeque<>(List.of(productId));
+        while (!pending.isEmpty()) {
+            Long id = pending.pop();
+            if (affected.add(id)) {
+                exploded.remove(id);
+                pending.addAll(parents.getOrDefault(id, Set.of()));
+            }
+        }
+        return affected;
+    }
+
+    private Map<Long, BigDecimal> explode(long productId) {
+        // Post-order over the component graph: a product is combined once all of its components are
+        Deque<Long> stack = new ArrayDeque<>();
+        Set<Long> entered = new HashSet<>();
+        stack.push(productId);
+        while (!stack.isEmpty()) {
+            Long id = stack.peek();
+            if (exploded.containsKey(id)) {
+                stack.pop();
+                continue;
+            }
+            if (entered.add(id)) {
+                for (ComponentRow row : components.getOrDefault(id, List.of())) {
+                    if (!exploded.containsKey(row.componentId()) && !entered.contains(row.componentId())) {
+                        stack.push(row.componentId());
+                    }
+                }
+                continue;
+            }
+            stack.pop();
+            exploded.put(id, combine(id));
+        }
+        return exploded.get(productId);
+    }
+
+    private Map<Long, BigDecimal> combine(long productId) {
+        Map<Long, BigDecimal> requirements = new HashMap<>();
+        for (BomRow row : materials.getOrDefault(productId, List.of())) {
+            requirements.merge(row.rawMaterialId(), row.requiredQuantity(), BigDecimal::add);
+        }
+        for (ComponentRow row : components.getOrDefault(productId, List.of())) {
+            // Missing only for a component still being expanded, i.e. one that closes a cycle
+            Map<Long, BigDecimal> component = exploded.get(row.componentId());
+            if (component == null) {
+                continue;
+            }
+            for (Map.Entry<Long, BigDecimal> entry : component.entrySet()) {
+                requirements.merge(entry.getKey(), entry.getValue().multiply(row.requiredQuantity()), BigDecimal::add);
+            }
+        }
+        return requirements;
+    }
+}
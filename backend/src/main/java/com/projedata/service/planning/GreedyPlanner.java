@@ -0,0 +1,57 @@
+package com.projedata.service.planning;
+
+/**
+ * The value-ordered greedy allocation over a {@link PlanningModel}: each product in turn takes
+ * as many units as the remaining stock allows. Works on caller-owned buffers, so a pass
+ * allocates nothing.
+ */
+public final class GreedyPlanner {
+
+    private GreedyPlanner() {
+    }
+
+    /**
+     * @param stock      remaining stock per material; consumed in place
+     * @param quantities receives the producible quantity of every product
+     */
+    public static void allocate(PlanningModel model, long[] stock, long[] quantities) {
+        allocate(model, stock, quantities, 0);
+    }
+
+    /**
+     * Re-plans the suffix starting at {@code fromProduct}; {@code stock} must hold what was left
+     * after the products before it.
+     */
+    public static void allocate(PlanningModel model, long[] stock, long[] quantities, int fromProduct) {
+        for (int p = fromProduct; p < model.productCount(); p++) {
+            quantities[p] = allocate(model, stock, p);
+        }
+    }
+
+    /**
+     * One step of the pass: takes as many units of {@code product} as {@code stock} allows.
+     *
+     * @return the producible quantity, 0 for a product without BOM
+     */
+    public static long allocate(PlanningModel model, long[] stock, int product) {
+        int[] bomMaterial = model.bomMaterial;
+        long[] bomRequired = model.bomRequired;
+        int from = model.bomStart[product];
+        int to = model.bomStart[product + 1];
+
+        long qty = Long.MAX_VALUE;
+        for (int row = from; row < to; row++) {
+            qty = Math.min(qty, stock[bomMaterial[row]] / bomRequired[row]);
+        }
+        if (qty == Long.MAX_VALUE) {
+            return 0;
+        }
+
+        if (qty > 0) {
+            for (int row = from; row < to; row++) {
+                stock[bomMaterial[row]] -= bomRequired[row] * qty;
+            }
+        }
+        return qty;
+    }
+}
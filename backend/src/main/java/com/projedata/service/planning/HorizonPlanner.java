@@ -0,0 +1,127 @@
+package com.projedata.service.planning;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Time-phased greedy planning: the stock left over by one period, plus the receipts scheduled for
+ * the next, is what the next period plans against.
+ *
+ * <p>Only the first period runs a full greedy pass. After a product's greedy step, at least one
+ * material of its BOM is left below what one more unit needs; that material blocks it. Stock only
+ * goes down until the material is replenished, so until then the product takes 0 and consumes
+ * nothing. Each product is kept in a list under the material blocking it, and a later period
+ * re-runs the greedy step, in value order, only for the products listed under the materials it
+ * receives. The result is exactly what a full pass per period would give, at a cost proportional
+ * to the products the receipts unblock rather than to the catalog. Works on caller-owned stock.
+ */
+public final class HorizonPlanner {
+
+    private HorizonPlanner() {
+    }
+
+    /**
+     * @param stock    stock on hand at the start of the horizon, fixed-point; consumed in place
+     * @param receipts what arrives at the start of each period
+     * @return one entry per period with the products it builds
+     */
+    public static List<Period> plan(PlanningModel model, long[] stock, Receipts receipts) {
+        int productCount = model.productCount();
+        // Singly-linked lists of blocked products: head per material, next per product, -1 terminated
+        int[] blockedHead = new int[model.materialCount()];
+        Arrays.fill(blockedHead, -1);
+        int[] blockedNext = new int[productCount];
+
+        BitSet candidates = new BitSet(productCount);
+        int[] products = new int[productCount];
+        long[] quantities = new long[productCount];
+        List<Period> periods = new ArrayList<>(receipts.periods());
+
+        for (int t = 0; t < receipts.periods(); t++) {
+            for (int i = receipts.start()[t]; i < receipts.start()[t + 1]; i++) {
+                int m = receipts.material()[i];
+                stock[m] += receipts.quantity()[i];
+                for (int p = blockedHead[m]; p >= 0; p = blockedNext[p]) {
+                    candidates.set(p);
+                }
+                blockedHead[m] = -1;
+            }
+            if (t == 0) {
+                candidates.set(0, productCount);
+            }
+
+            int count = 0;
+            for (int p = candidates.nextSetBit(0); p >= 0; p = candidates.nextSetBit(p + 1)) {
+                if (!model.hasBom(p)) {
+                    continue;
+                }
+                long quantity = GreedyPlanner.allocate(model, stock, p);
+                if (quantity > 0) {
+                    products[count] = p;
+                    quantities[count] = quantity;
+                    count++;
+                }
+                int blocker = blocker(model, stock, p);
+                blockedNext[p] = blockedHead[blocker];
+                blockedHead[blocker] = p;
+            }
+            candidates.clear();
+            periods.add(new Period(Arrays.copyOf(products, count), Arrays.copyOf(quantities, count)));
+        }
+        return periods;
+    }
+
+    /** A material of the product's BOM with less stock than one unit needs. */
+    private static int blocker(PlanningModel model, long[] stock, int product) {
+        for (int row = model.bomStart[product]; row < model.bomStart[product + 1]; row++) {
+            if (stock[model.bomMaterial[row]] < model.bomRequired[row]) {
+                return model.bomMaterial[row];
+            }
+        }
+        // The greedy step takes units until some material runs short, so this cannot happen
+        throw new IllegalStateException("Product " + model.productIds[product] + " is not blocked after its greedy step");
+    }
+
+    /** Products built in one period, in value order, and their quantities; zeros are left out. */
+    public record Period(int[] products, long[] quantities) {
+    }
+
+    /**
+     * Scheduled receipts grouped by period, CSR-style: period t receives {@code quantity[i]} of
+     * material {@code material[i]} for i in {@code start[t]..start[t + 1])}.
+     */
+    public record Receipts(int[] start, int[] material, long[] quantity) {
+
+        public int periods() {
+            return start.length - 1;
+        }
+
+        /**
+         * Groups receipts given in any order.
+         *
+         * @param period   period index of each receipt, within {@code 0..periods - 1}
+         * @param material model index of each receipt's material
+         * @param quantity fixed-point quantity of each receipt
+         */
+        public static Receipts of(int periods, int[] period, int[] material, long[] quantity) {
+            int[] start = new int[periods + 1];
+            for (int t : period) {
+                start[t + 1]++;
+            }
+            for (int t = 0; t < periods; t++) {
+                start[t + 1] += start[t];
+            }
+            int[] next = Arrays.copyOf(start, periods);
+            int[] groupedMaterial = new int[period.length];
+            long[] groupedQuantity = new long[period.length];
+            for (int i = 0; i < period.length; i++) {
+                int slot = next[period[i]]++;
+                groupedMaterial[slot] = material[i];
+                groupedQuantity[slot] = quantity[i];
+            }
+            return new Receipts(start, groupedMaterial, groupedQuantity);
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package com.projedata.service.planning;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Branch-and-bound solver for the integer production plan:
+ * maximize sum(value[p] * x[p]) subject to sum(required[p][m] * x[p]) <= stock[m], x[p] >= 0.
+ *
+ * <p>Bounds come from a surrogate relaxation: the material constraints are weighted and summed
+ * into a single knapsack, which is then solved fractionally with per-product caps. The search
+ * stops at the deadline and reports the best plan found together with an upper bound on the
+ * optimum.
+ */
+public final class OptimalPlanSolver {
+
+    private static final int TUNING_ITERATIONS = 50;
+    private static final double EPS = 1e-6;
+
+    private final int productCount;
+    private final int[] bomStart;
+    private final int[] bomMaterial;
+    private final long[] bomRequired;
+    private final long[] stock;
+    // Unit value per product, in cents
+    private final double[] value;
+
+    // Products that cannot be built even once are fixed at zero and never branched on
+    private final int[] candidates;
+    private final double[] materialWeight;
+    private final double[] productWeight;
+    private int[] order;
+
+    private final long[] current;
+    private final long[] best;
+    private double capacity;
+    private double bestValue;
+    private double openBound;
+    private long deadline;
+    private boolean aborted;
+
+    public OptimalPlanSolver(PlanningModel model) {
+        this.productCount = model.productCount();
+        this.bomStart = model.bomStart;
+        this.bomMaterial = model.bomMaterial;
+        this.bomRequired = model.bomRequired;
+        this.stock = model.stock.clone();
+        this.value = new double[productCount];
+        for (int p = 0; p < productCount; p++) {
+            value[p] = model.productValues[p].movePointRight(2).doubleValue();
+        }
+
+        this.current = new long[productCount];
+        this.best = new long[productCount];
+        this.materialWeight = new double[stock.length];
+        this.productWeight = new double[productCount];
+        this.candidates = IntStream.range(0, productCount)
+                .filter(p -> value[p] > 0 && maxProducible(p) > 0)
+                .toArray();
+        this.order = candidates.clone();
+    }
+
+    public Result solve(long timeBudgetNanos) {
+        long start = System.nanoTime();
+        deadline = start + timeBudgetNanos;
+
+        tuneMultipliers(start + timeBudgetNanos / 4);
+
+        // Seed the incumbent with the better of two greedy passes: by value and by value density
+        bestValue = -1;
+        greedy(IntStream.range(0, productCount).toArray());
+        greedy(order);
+
+        search(0, 0.0);
+
+        double upperBound = aborted ? Math.max(bestValue, openBound) : bestValue;
+        return new Result(best.clone(), bestValue, upperBound, !aborted);
+    }
+
+    /**
+     * Picks the surrogate multipliers by subgradient descent on the root bound: materials the
+     * fractional solution overuses get heavier, slack ones lighter. Any non-negative multipliers
+     * give a valid bound, so the loop only ever keeps the tightest one seen.
+     */
+    private void tuneMultipliers(long tuningDeadline) {
+        for (int m = 0; m < stock.length; m++) {
+            materialWeight[m] = stock[m] > 0 ? 1.0 / stock[m] : 0.0;
+        }
+        double[] bestWeight = materialWeight.clone();
+        double bestBound = Double.POSITIVE_INFINITY;
+        double[] usage = new double[stock.length];
+        double step = 0.5;
+
+        for (int iteration = 0; iteration < TUNING_ITERATIONS && System.nanoTime() < tuningDeadline; iteration++) {
+            applyWeights();
+            Arrays.fill(usage, 0.0);
+            double bound = bound(0, order.length == 0 ? 0 : maxProducible(order[0]), usage);
+            if (bound < bestBound) {
+                bestBound = bound;
+                System.arraycopy(materialWeight, 0, bestWeight, 0, stock.length);
+            }
+            for (int m = 0; m < stock.length; m++) {
+                if (stock[m] > 0) {
+                    double excess = Math.max(-1.0, Math.min(1.0, usage[m] / stock[m] - 1.0));
+                    materialWeight[m] *= Math.exp(step * excess);
+                }
+            }
+            step *= 0.9;
+        }
+
+        System.arraycopy(bestWeight, 0, materialWeight, 0, stock.length);
+        applyWeights();
+    }
+
+    private void applyWeights() {
+        capacity = 0;
+        for (int m = 0; m < stock.length; m++) {
+            capacity += stock[m] * materialWeight[m];
+        }
+        for (int p : candidates) {
+            productWeight[p] = 0;
+            for (int row = bomStart[p]; row < bomStart[p + 1]; row++) {
+                productWeight[p] += bomRequired[row] * materialWeight[bomMaterial[row]];
+            }
+        }
+        order = Arrays.stream(candidates)
+                .boxed()
+                .sorted(Comparator.comparingDouble((Integer p) -> value[p] / productWeight[p]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    private void greedy(int[] sequence) {
+        double total = 0;
+        for (int p : sequence) {
+            long qty = maxProducible(p);
+            if (qty <= 0) {
+                continue;
+            }
+            consume(p, qty);
+            current[p] = qty;
+            total += qty * value[p];
+        }
+        if (total > bestValue) {
+            bestValue = total;
+            System.arraycopy(current, 0, best, 0, productCount);
+        }
+        for (int p = 0; p < productCount; p++) {
+            if (current[p] > 0) {
+                consume(p, -current[p]);
+                current[p] = 0;
+            }
+        }
+    }
+
+    private void search(int depth, double accumulated) {
+        // Products that no longer fit have a single branch; the parent bound already covers them
+        while (depth < order.length && maxProducible(order[depth]) == 0) {
+            depth++;
+        }
+        if (depth == order.length) {
+            if (accumulated > bestValue) {
+                bestValue = accumulated;
+                System.arraycopy(current, 0, best, 0, productCount);
+            }
+            return;
+        }
+
+        int p = order[depth];
+        long max = maxProducible(p);
+        double bound = accumulated + bound(depth, max);
+        if (bound < bestValue + 1 - EPS) {
+            return;
+        }
+        if (System.nanoTime() > deadline) {
+            aborted = true;
+        }
+        if (aborted) {
+            openBound = Math.max(openBound, bound);
+            return;
+        }
+
+        for (long qty = max; qty >= 0; qty--) {
+            consume(p, qty);
+            current[p] = qty;
+            search(depth + 1, accumulated + qty * value[p]);
+            consume(p, -qty);
+            current[p] = 0;
+
+            if (qty == 0) {
+                break;
+            }
+            // Bound for all remaining siblings at once: x[p] <= qty - 1
+            double remaining = accumulated + bound(depth, qty - 1);
+            if (aborted) {
+                openBound = Math.max(openBound, remaining);
+                return;
+            }
+            if (remaining < bestValue + 1 - EPS) {
+                break;
+            }
+        }
+    }
+
+    private double bound(int depth, long firstCap) {
+        return bound(depth, firstCap, null);
+    }
+
+    /**
+     * Fractional surrogate-knapsack bound for products {@code order[depth..]}, capping the first one.
+     * When {@code usage} is given, the material consumption of the fractional solution is added to it.
+     */
+    private double bound(int depth, long firstCap, double[] usage) {
+        double left = capacity;
+        double total = 0;
+        for (int d = depth; d < order.length && left > EPS; d++) {
+            int p = order[d];
+            long cap = d == depth ? firstCap : maxProducible(p);
+            if (cap <= 0) {
+                continue;
+            }
+            double take = Math.min(cap, left / productWeight[p]);
+            total += take * value[p];
+            left -= take * productWeight[p];
+            if (usage != null) {
+                for (int row = bomStart[p]; row < bomStart[p + 1]; row++) {
+                    usage[bomMaterial[row]] += take * bomRequired[row];
+                }
+            }
+        }
+        return total;
+    }
+
+    private long maxProducible(int p) {
+        long qty = Long.MAX_VALUE;
+        for (int row = bomStart[p]; row < bomStart[p + 1]; row++) {
+            qty = Math.min(qty, stock[bomMaterial[row]] / bomRequired[row]);
+        }
+        return qty == Long.MAX_VALUE ? 0 : qty;
+    }
+
+    private void consume(int p, long qty) {
+        if (qty == 0) {
+            return;
+        }
+        for (int row = bomStart[p]; row < bomStart[p + 1]; row++) {
+            int m = bomMaterial[row];
+            long used = bomRequired[row] * qty;
+            stock[m] -= used;
+            capacity -= used * materialWeight[m];
+        }
+    }
+
+    /**
+     * @param quantities per-product quantities, indexed like the model
+     * @param value      objective of {@code quantities}, in cents
+     * @param upperBound proven upper bound on the optimum, in cents
+     * @param optimal    whether the search finished within the time budget
+     */
+    public record Result(long[] quantities, double value, double upperBound, boolean optimal) {
+
+        public double gap() {
+            return upperBound <= 0 ? 0.0 : (upperBound - value) / upperBound;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.projedata.service.planning;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The last greedy plan together with what is needed to update it incrementally: the stock left
+ * after the whole plan and a reverse index from each material to the products whose BOM uses it.
+ *
+ * <p>A change to a material's stock can only affect the products from its first user onwards,
+ * and a BOM change only the products from the edited one onwards, so {@link #update} re-plans
+ * just that suffix of the value-ordered plan. Not thread-safe; callers serialize access.
+ */
+public final class PlanState {
+
+    private PlanningModel model;
+    private final Map<Long, Integer> productIndex = new HashMap<>();
+    private final Map<Long, Integer> materialIndex = new HashMap<>();
+    private final long[] quantities;
+    private long[] remaining;
+
+    // Reverse index, CSR-style: material m is used by products useProduct[useStart[m]..useStart[m + 1]), ascending
+    private int[] useStart;
+    private int[] useProduct;
+
+    public PlanState(PlanningModel model) {
+        this.model = model;
+        for (int p = 0; p < model.productCount(); p++) {
+            productIndex.put(model.productIds[p], p);
+        }
+        for (int m = 0; m < model.materialCount(); m++) {
+            materialIndex.put(model.materialIds[m], m);
+        }
+        this.quantities = new long[model.productCount()];
+        this.remaining = model.stock.clone();
+        GreedyPlanner.allocate(model, remaining, quantities);
+        buildReverseIndex();
+    }
+
+    public PlanningModel model() {
+        return model;
+    }
+
+    public long[] quantities() {
+        return quantities;
+    }
+
+    public boolean containsProduct(long productId) {
+        return productIndex.containsKey(productId);
+    }
+
+    public boolean containsMaterial(long materialId) {
+        return materialIndex.containsKey(materialId);
+    }
+
+    /** @return the model index of the material, or -1 when it was created after the model was compiled */
+    public int materialIndex(long materialId) {
+        return materialIndex.getOrDefault(materialId, -1);
+    }
+
+    /**
+     * Applies new absolute stock values and replacement BOMs, then re-plans from the first
+     * affected product.
+     *
+     * @param stock fixed-point stock by material id; unknown materials are added to the model
+     * @param boms  full replacement BOM by product id; every product must already be in the model
+     *              and every referenced material either in the model or in {@code stock}
+     * @return index of the first re-planned product, or {@code productCount} if the plan did not change
+     */
+    public int update(Map<Long, Long> stock, Map<Long, Bom> boms) {
+        int from = model.productCount();
+        for (Map.Entry<Long, Long> entry : stock.entrySet()) {
+            Integer m = materialIndex.get(entry.getKey());
+            if (m != null && model.stock[m] != entry.getValue() && useStart[m] < useStart[m + 1]) {
+                from = Math.min(from, useProduct[useStart[m]]);
+            }
+        }
+        for (Long productId : boms.keySet()) {
+            from = Math.min(from, productIndex.get(productId));
+        }
+
+        // Give back what the suffix consumed, so remaining holds the stock left before product `from`
+        int[] bomStart = model.bomStart;
+        for (int p = from; p < model.productCount(); p++) {
+            if (quantities[p] > 0) {
+                for (int row = bomStart[p]; row < bomStart[p + 1]; row++) {
+                    remaining[model.bomMaterial[row]] += model.bomRequired[row] * quantities[p];
+                }
+            }
+        }
+
+        applyStock(stock);
+        if (!boms.isEmpty()) {
+            applyBoms(boms);
+            buildReverseIndex();
+        }
+
+        GreedyPlanner.allocate(model, remaining, quantities, from);
+        return from;
+    }
+
+    private void applyStock(Map<Long, Long> stock) {
+        long[] initial = model.stock;
+        long[] materialIds = model.materialIds;
+        int added = (int) stock.keySet().stream().filter(id -> !materialIndex.containsKey(id)).count();
+        if (added > 0) {
+            int count = materialIds.length;
+            initial = Arrays.copyOf(initial, count + added);
+            materialIds = Arrays.copyOf(materialIds, count + added);
+            remaining = Arrays.copyOf(remaining, count + added);
+            for (Long id : stock.keySet()) {
+                if (!materialIndex.containsKey(id)) {
+                    materialIndex.put(id, count);
+                    materialIds[count++] = id;
+                }
+            }
+            model = new PlanningModel(model.productIds, model.productNames, model.productValues,
+                    model.bomStart, model.bomMaterial, model.bomRequired, materialIds, initial);
+        }
+
+        for (Map.Entry<Long, Long> entry : stock.entrySet()) {
+            int m = materialIndex.get(entry.getKey());
+            remaining[m] += entry.getValue() - initial[m];
+            initial[m] = entry.getValue();
+        }
+        if (added > 0) {
+            useStart = Arrays.copyOf(useStart, materialIds.length + 1);
+            Arrays.fill(useStart, materialIds.length - added + 1, useStart.length, useProduct.length);
+        }
+    }
+
+    private void applyBoms(Map<Long, Bom> boms) {
+        int productCount = model.productCount();
+        Bom[] replaced = new Bom[productCount];
+        int rows = model.bomMaterial.length;
+        for (Map.Entry<Long, Bom> entry : boms.entrySet()) {
+            int p = productIndex.get(entry.getKey());
+            replaced[p] = entry.getValue();
+            rows += entry.getValue().materialIds().length - (model.bomStart[p + 1] - model.bomStart[p]);
+        }
+
+        int[] bomStart = new int[productCount + 1];
+        int[] bomMaterial = new int[rows];
+        long[] bomRequired = new long[rows];
+        int row = 0;
+        for (int p = 0; p < productCount; p++) {
+            Bom bom = replaced[p];
+            if (bom == null) {
+                int length = model.bomStart[p + 1] - model.bomStart[p];
+                System.arraycopy(model.bomMaterial, model.bomStart[p], bomMaterial, row, length);
+                System.arraycopy(model.bomRequired, model.bomStart[p], bomRequired, row, length);
+                row += length;
+            } else {
+                for (int i = 0; i < bom.materialIds().length; i++) {
+                    bomMaterial[row] = materialIndex.get(bom.materialIds()[i]);
+                    bomRequired[row] = bom.required()[i];
+                    row++;
+                }
+            }
+            bomStart[p + 1] = row;
+        }
+
+        model = new PlanningModel(model.productIds, model.productNames, model.productValues,
+                bomStart, bomMaterial, bomRequired, model.materialIds, model.stock);
+    }
+
+    private void buildReverseIndex() {
+        int materialCount = model.materialCount();
+        useStart = new int[materialCount + 1];
+        for (int material : model.bomMaterial) {
+            useStart[material + 1]++;
+        }
+        for (int m = 0; m < materialCount; m++) {
+            useStart[m + 1] += useStart[m];
+        }
+        useProduct = new int[model.bomMaterial.length];
+        int[] next = Arrays.copyOf(useStart, materialCount);
+        for (int p = 0; p < model.productCount(); p++) {
+            for (int row = model.bomStart[p]; row < model.bomStart[p + 1]; row++) {
+                useProduct[next[model.bomMaterial[row]]++] = p;
+            }
+        }
+    }
+
+    /** A product's full BOM: parallel arrays of material ids and fixed-point required quantities. */
+    public record Bom(long[] materialIds, long[] required) {
+    }
+}
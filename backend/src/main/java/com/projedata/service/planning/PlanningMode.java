@@ -0,0 +1,17 @@
+package com.projedata.service.planning;
+
+import jakarta.ws.rs.BadRequestException;
+
+public enum PlanningMode {
+    GREEDY,
+    OPTIMAL;
+
+    public static PlanningMode fromString(String mode) {
+        for (PlanningMode candidate : values()) {
+            if (candidate.name().equalsIgnoreCase(mode)) {
+                return candidate;
+            }
+        }
+        throw new BadRequestException("Unknown planning mode: " + mode);
+    }
+}
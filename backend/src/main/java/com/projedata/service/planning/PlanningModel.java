@@ -0,0 +1,150 @@
+package com.projedata.service.planning;
+
+import io.quarkus.hibernate.orm.panache.common.ProjectedFieldName;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Catalog compiled into primitive arrays for the planning algorithms.
+ *
+ * <p>Products are kept in planning order (value DESC). A product without a BOM keeps its place
+ * with an empty row range, so indexes survive BOM edits, and is never planned. BOM rows are
+ * stored CSR-style: product {@code p} owns rows {@code [bomStart[p], bomStart[p + 1])}.
+ * Quantities are fixed-point longs with the scale of the {@code DECIMAL(15,4)} columns.
+ */
+public final class PlanningModel {
+
+    public static final int QUANTITY_SCALE = 4;
+
+    public final long[] productIds;
+    public final String[] productNames;
+    public final BigDecimal[] productValues;
+    public final int[] bomStart;
+    public final int[] bomMaterial;
+    public final long[] bomRequired;
+    public final long[] materialIds;
+    public final long[] stock;
+
+    public PlanningModel(long[] productIds, String[] productNames, BigDecimal[] productValues,
+                         int[] bomStart, int[] bomMaterial, long[] bomRequired,
+                         long[] materialIds, long[] stock) {
+        this.productIds = productIds;
+        this.productNames = productNames;
+        this.productValues = productValues;
+        this.bomStart = bomStart;
+        this.bomMaterial = bomMaterial;
+        this.bomRequired = bomRequired;
+        this.materialIds = materialIds;
+        this.stock = stock;
+    }
+
+    /**
+     * Builds the model from flat projection rows, so loading the catalog takes a constant number
+     * of queries regardless of its size.
+     *
+     * @param products  products ordered by value DESC
+     * @param bomRows   every BOM row, in any order
+     * @param materials every raw material referenced by {@code bomRows}
+     */
+    public static PlanningModel compile(List<ProductRow> products, List<BomRow> bomRows, List<MaterialRow> materials) {
+        Map<Long, Integer> materialIndex = new HashMap<>();
+        long[] materialIds = new long[materials.size()];
+        long[] stock = new long[materials.size()];
+        for (int m = 0; m < materials.size(); m++) {
+            MaterialRow material = materials.get(m);
+            materialIndex.put(material.id(), m);
+            materialIds[m] = material.id();
+            stock[m] = toFixedPoint(material.stockQuantity(), RoundingMode.FLOOR);
+        }
+
+        Map<Long, Integer> productIndex = new HashMap<>();
+        long[] productIds = new long[products.size()];
+        String[] productNames = new String[products.size()];
+        BigDecimal[] productValues = new BigDecimal[products.size()];
+        for (int p = 0; p < products.size(); p++) {
+            ProductRow product = products.get(p);
+            productIndex.put(product.id(), p);
+            productIds[p] = product.id();
+            productNames[p] = product.name();
+            productValues[p] = product.value();
+        }
+
+        // Counting sort of the BOM rows by product position
+        int[] owner = new int[bomRows.size()];
+        int[] bomStart = new int[products.size() + 1];
+        for (int i = 0; i < bomRows.size(); i++) {
+            owner[i] = productIndex.get(bomRows.get(i).productId());
+            bomStart[owner[i] + 1]++;
+        }
+        for (int p = 0; p < products.size(); p++) {
+            bomStart[p + 1] += bomStart[p];
+        }
+        int[] next = Arrays.copyOf(bomStart, products.size());
+        int[] bomMaterial = new int[bomRows.size()];
+        long[] bomRequired = new long[bomRows.size()];
+        for (int i = 0; i < bomRows.size(); i++) {
+            BomRow bom = bomRows.get(i);
+            int row = next[owner[i]]++;
+            bomMaterial[row] = materialIndex.get(bom.rawMaterialId());
+            bomRequired[row] = toRequirement(bom.requiredQuantity());
+        }
+
+        return new PlanningModel(productIds, productNames, productValues,
+                bomStart, bomMaterial, bomRequired, materialIds, stock);
+    }
+
+    public int productCount() {
+        return productIds.length;
+    }
+
+    public boolean hasBom(int product) {
+        return bomStart[product] < bomStart[product + 1];
+    }
+
+    public int materialCount() {
+        return materialIds.length;
+    }
+
+    /** Values read from the database are exact; the rounding only matters for unflushed entities. */
+    public static long toFixedPoint(BigDecimal quantity, RoundingMode rounding) {
+        return quantity.setScale(QUANTITY_SCALE, rounding).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Per-unit requirement, rounded up. Sub-assembly quantities multiply through every BOM level,
+     * so an exploded requirement can exceed the fixed-point range; no stock can cover it, so it is
+     * clamped to {@code Long.MAX_VALUE} and the product is planned at 0 instead of failing the compile.
+     */
+    public static long toRequirement(BigDecimal quantity) {
+        BigInteger fixed = quantity.setScale(QUANTITY_SCALE, RoundingMode.CEILING).unscaledValue();
+        return fixed.bitLength() < Long.SIZE ? fixed.longValue() : Long.MAX_VALUE;
+    }
+
+    // Projections for PanacheQuery.project(); constructor parameter names map to entity fields
+
+    public record ProductRow(Long id, String name, BigDecimal value) {
+    }
+
+    public record BomRow(@ProjectedFieldName("id.productId") Long productId,
+                         @ProjectedFieldName("id.rawMaterialId") Long rawMaterialId,
+                         BigDecimal requiredQuantity) {
+    }
+
+    public record ComponentRow(@ProjectedFieldName("id.productId") Long productId,
+                               @ProjectedFieldName("id.componentId") Long componentId,
+                               BigDecimal requiredQuantity) {
+    }
+
+    public record MaterialRow(Long id, BigDecimal stockQuantity) {
+    }
+
+    public record ReceiptRow(Long rawMaterialId, LocalDate expectedOn, BigDecimal quantity) {
+    }
+}
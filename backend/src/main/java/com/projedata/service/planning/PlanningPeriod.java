@@ -0,0 +1,31 @@
+package com.projedata.service.planning;
+
+import jakarta.ws.rs.BadRequestException;
+
+import java.time.LocalDate;
+
+/** Length of one period of a planning horizon. */
+public enum PlanningPeriod {
+    DAY(1),
+    WEEK(7);
+
+    public final int days;
+
+    PlanningPeriod(int days) {
+        this.days = days;
+    }
+
+    /** First day of period {@code index} of a horizon starting on {@code start}. */
+    public LocalDate start(LocalDate start, int index) {
+        return start.plusDays((long) days * index);
+    }
+
+    public static PlanningPeriod fromString(String period) {
+        for (PlanningPeriod candidate : values()) {
+            if (candidate.name().equalsIgnoreCase(period)) {
+                return candidate;
+            }
+        }
+        throw new BadRequestException("Unknown planning period: " + period);
+    }
+}
@@ -0,0 +1,38 @@
+package com.projedata.service.replica;
+
+import io.quarkus.arc.Arc;
+import io.quarkus.datasource.common.runtime.DataSourceUtil;
+import io.quarkus.hibernate.orm.PersistenceUnitExtension;
+import io.quarkus.hibernate.orm.runtime.tenant.TenantResolver;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Picks the datasource of each Hibernate session, using Hibernate's DATABASE multitenancy with
+ * two "tenants" that hold the same data: the primary and the read replica. Only sessions opened
+ * inside a {@link ReadOnly} method are candidates for the replica.
+ */
+@PersistenceUnitExtension
+@ApplicationScoped
+public class CatalogTenantResolver implements TenantResolver {
+
+    @Inject
+    ReadRouting routing;
+
+    @Inject
+    ReplicaRouter router;
+
+    @Override
+    public String getDefaultTenantId() {
+        return DataSourceUtil.DEFAULT_DATASOURCE_NAME;
+    }
+
+    @Override
+    public String resolveTenantId() {
+        // Startup, scheduled work and event observers run without a request
+        if (!Arc.container().requestContext().isActive() || !routing.readOnly || !router.useReplica()) {
+            return DataSourceUtil.DEFAULT_DATASOURCE_NAME;
+        }
+        return ReplicaRouter.DATASOURCE;
+    }
+}
@@ -0,0 +1,18 @@
+package com.projedata.service.replica;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a non-transactional read method: the Hibernate session it opens may be served by the
+ * read replica, subject to {@link ReplicaRouter#useReplica()}.
+ */
+@InterceptorBinding
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadOnly {
+}
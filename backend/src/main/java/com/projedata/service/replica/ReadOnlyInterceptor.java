@@ -0,0 +1,27 @@
+package com.projedata.service.replica;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+@ReadOnly
+@Interceptor
+@Priority(Interceptor.Priority.PLATFORM_BEFORE)
+public class ReadOnlyInterceptor {
+
+    @Inject
+    ReadRouting routing;
+
+    @AroundInvoke
+    Object route(InvocationContext context) throws Exception {
+        boolean previous = routing.readOnly;
+        routing.readOnly = true;
+        try {
+            return context.proceed();
+        } finally {
+            routing.readOnly = previous;
+        }
+    }
+}
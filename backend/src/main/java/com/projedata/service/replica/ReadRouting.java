@@ -0,0 +1,10 @@
+package com.projedata.service.replica;
+
+import jakarta.enterprise.context.RequestScoped;
+
+/** Whether the current request is inside a {@link ReadOnly} method. */
+@RequestScoped
+public class ReadRouting {
+
+    boolean readOnly;
+}
@@ -0,0 +1,171 @@
+package com.projedata.service.replica;
+
+import com.projedata.service.CatalogChanged;
+import io.agroal.api.AgroalDataSource;
+import io.quarkus.agroal.DataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides whether reads may go to the replica. The replica is used only when it is enabled,
+ * answers the lag probe, lags at most {@code catalog.read-replica.max-lag}, and has replayed the
+ * WAL up to the position the primary was at after the last catalog write committed by this
+ * instance. Otherwise reads fall back to the primary. The probe runs at most once per
+ * {@code catalog.read-replica.probe-interval}, so after a write reads stay on the primary until a
+ * probe sees the write replayed.
+ */
+@ApplicationScoped
+public class ReplicaRouter {
+
+    public static final String DATASOURCE = "replica";
+
+    private static final Logger LOG = Logger.getLogger(ReplicaRouter.class);
+
+    // Lag is zero and the replayed position is the current one on a server that is not a standby,
+    // so a replica URL pointing at the primary just works. Positions are WAL byte offsets
+    private static final String LAG_QUERY = """
+            SELECT CASE
+                WHEN NOT pg_is_in_recovery() THEN 0
+                WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+            END,
+            CASE
+                WHEN pg_is_in_recovery() THEN pg_last_wal_replay_lsn()
+                ELSE pg_current_wal_lsn()
+            END - '0/0'::pg_lsn""";
+
+    private static final String WRITE_POSITION_QUERY = "SELECT pg_current_wal_lsn() - '0/0'::pg_lsn";
+
+    @ConfigProperty(name = "catalog.read-replica.enabled", defaultValue = "false")
+    boolean enabled;
+
+    @ConfigProperty(name = "catalog.read-replica.max-lag", defaultValue = "2s")
+    Duration maxLag;
+
+    @ConfigProperty(name = "catalog.read-replica.probe-interval", defaultValue = "1s")
+    Duration probeInterval;
+
+    @Inject
+    @DataSource(DATASOURCE)
+    Instance<AgroalDataSource> replica;
+
+    @Inject
+    AgroalDataSource primary;
+
+    @Inject
+    TransactionSynchronizationRegistry transactions;
+
+    private final AtomicLong lastWritePosition = new AtomicLong();
+    private volatile long probedAtNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+    private volatile long lagMillis = -1;
+    private volatile long replayedPosition = -1;
+    private final ReentrantLock probeLock = new ReentrantLock();
+
+    public boolean useReplica() {
+        if (!enabled) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (now - probedAtNanos > probeInterval.toNanos()) {
+            probe();
+        }
+        long lag = lagMillis;
+        return lag >= 0
+                && lag <= maxLag.toMillis()
+                && replayedPosition >= lastWritePosition.get();
+    }
+
+    // Observed when fired, inside the writing transaction, so the position is read once per
+    // transaction, after it commits, however many events it fires
+    void onCatalogChanged(@Observes(during = TransactionPhase.IN_PROGRESS) CatalogChanged change) {
+        if (!enabled) {
+            return;
+        }
+        if (transactions.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            recordWrite();
+            return;
+        }
+        if (transactions.getResource(ReplicaRouter.class) == null) {
+            transactions.putResource(ReplicaRouter.class, Boolean.TRUE);
+            transactions.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        recordWrite();
+                    }
+                }
+            });
+        }
+    }
+
+    private void recordWrite() {
+        // Read after the commit, so the position covers the write. An unknown position holds
+        // until the next known one, which is past it
+        lastWritePosition.accumulateAndGet(queryWritePosition(),
+                (previous, next) -> previous == Long.MAX_VALUE ? next : Math.max(previous, next));
+    }
+
+    private void probe() {
+        // Not synchronized, so a virtual thread waiting on the probe's JDBC does not pin its carrier
+        if (!probeLock.tryLock()) {
+            return;
+        }
+        try {
+            if (System.nanoTime() - probedAtNanos > probeInterval.toNanos()) {
+                queryLag();
+                probedAtNanos = System.nanoTime();
+            }
+        } finally {
+            probeLock.unlock();
+        }
+    }
+
+    /** Updates the replica's replay lag in milliseconds and replayed position; -1 when it cannot be reached. */
+    private void queryLag() {
+        try (Connection connection = replica.get().getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(LAG_QUERY)) {
+            result.next();
+            replayedPosition = result.getLong(2);
+            lagMillis = result.getLong(1);
+        } catch (SQLException | RuntimeException e) {
+            if (lagMillis >= 0) {
+                LOG.warnf("Read replica unavailable, reading from the primary: %s", e.getMessage());
+            }
+            lagMillis = -1;
+        }
+    }
+
+    /** The primary's current WAL position; unknown positions keep reads on the primary. */
+    private long queryWritePosition() {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(WRITE_POSITION_QUERY)) {
+            result.next();
+            return result.getLong(1);
+        } catch (SQLException | RuntimeException e) {
+            LOG.warnf("Could not read the primary's WAL position, reading from the primary: %s", e.getMessage());
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+-- Sub-montagens: itens de BOM que apontam para outro produto
+CREATE TABLE product_components (
+    product_id        BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    component_id      BIGINT NOT NULL REFERENCES products(id) ON DELETE CASCADE,
+    required_quantity DECIMAL(15,4) NOT NULL,
+    PRIMARY KEY (product_id, component_id),
+    CHECK (product_id <> component_id)
+);
+
+CREATE INDEX idx_product_components_component ON product_components (component_id);
@@ -0,0 +1,10 @@
+-- Código externo (ERP) opcional, usado pela importação em massa para resolver referências
+ALTER TABLE products ADD COLUMN code VARCHAR(64) UNIQUE;
+ALTER TABLE raw_materials ADD COLUMN code VARCHAR(64) UNIQUE;
+
+-- Alocação de ids em blocos de 50 (otimizador "pooled" do Hibernate): cada nextval reserva
+-- os ids (valor - 49 .. valor). O setval garante que o primeiro bloco fique acima dos ids existentes.
+ALTER SEQUENCE products_id_seq INCREMENT BY 50;
+ALTER SEQUENCE raw_materials_id_seq INCREMENT BY 50;
+SELECT setval('products_id_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM products), 1));
+SELECT setval('raw_materials_id_seq', GREATEST((SELECT COALESCE(MAX(id), 0) FROM raw_materials), 1));
@@ -0,0 +1,28 @@
+-- Livro de movimentações de estoque (somente inserção): entradas, consumos e ajustes.
+-- quantity tem sinal: positivo entra no estoque, negativo sai.
+CREATE TABLE stock_movements (
+    id              BIGSERIAL PRIMARY KEY,
+    raw_material_id BIGINT NOT NULL REFERENCES raw_materials(id) ON DELETE CASCADE,
+    kind            VARCHAR(16) NOT NULL CHECK (kind IN ('RECEIPT', 'CONSUMPTION', 'ADJUSTMENT')),
+    quantity        DECIMAL(15,4) NOT NULL,
+    reference       VARCHAR(255),
+    -- clock_timestamp() e não now(): a hora da inserção, não a do início da transação
+    created_at      TIMESTAMPTZ NOT NULL DEFAULT clock_timestamp()
+);
+
+CREATE INDEX idx_stock_movements_material_time ON stock_movements (raw_material_id, created_at);
+
+-- Saldo de cada matéria-prima em as_of, compactado periodicamente a partir das movimentações.
+-- O saldo em um instante T = último snapshot com as_of <= T + movimentações em (as_of, T].
+CREATE TABLE stock_snapshots (
+    raw_material_id BIGINT NOT NULL REFERENCES raw_materials(id) ON DELETE CASCADE,
+    as_of           TIMESTAMPTZ NOT NULL,
+    quantity        DECIMAL(15,4) NOT NULL,
+    PRIMARY KEY (raw_material_id, as_of)
+);
+
+-- Saldo inicial: o estoque atual vira a primeira movimentação de cada matéria-prima
+INSERT INTO stock_movements (raw_material_id, kind, quantity, reference)
+SELECT id, 'ADJUSTMENT', stock_quantity, 'Opening balance'
+FROM raw_materials
+WHERE stock_quantity <> 0;
@@ -0,0 +1,3 @@
+-- BOM consultado por matéria-prima: capacidade produtível, exclusão de matéria-prima e a
+-- verificação da FK deixam de varrer product_raw_materials inteira
+CREATE INDEX idx_product_raw_materials_material ON product_raw_materials (raw_material_id);
@@ -0,0 +1,14 @@
+-- Entregas previstas de matéria-prima, usadas pelo planejamento por períodos (/horizon).
+-- A entrega conta no período que contém expected_on; entregas atrasadas (expected_on antes do
+-- início do horizonte) contam no primeiro. Quando a entrada de fato é registrada (/adjust),
+-- a entrega prevista deve ser removida.
+CREATE TABLE scheduled_receipts (
+    id              BIGSERIAL PRIMARY KEY,
+    raw_material_id BIGINT NOT NULL REFERENCES raw_materials(id) ON DELETE CASCADE,
+    expected_on     DATE NOT NULL,
+    quantity        DECIMAL(15,4) NOT NULL CHECK (quantity > 0),
+    reference       VARCHAR(255)
+);
+
+CREATE INDEX idx_scheduled_receipts_material_date ON scheduled_receipts (raw_material_id, expected_on);
+CREATE INDEX idx_scheduled_receipts_date ON scheduled_receipts (expected_on);
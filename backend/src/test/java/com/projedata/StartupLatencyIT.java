@@ -0,0 +1,140 @@
+package com.projedata;
+
+import io.quarkus.test.common.DevServicesContext;
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts a second instance of the packaged application against the Dev Services database and
+ * measures what a new replica costs: the startup Quarkus reports (Flyway and Hibernate bootstrap
+ * included) and the latency of the first plan request, which loads and compiles the catalog.
+ * With {@code -Dnative} the native executable is measured, otherwise the JVM jar. The first
+ * plan must match the one served by the instance under test.
+ *
+ * <p>Limits default to what the native image comfortably meets, or generous JVM values, and can
+ * be overridden with {@code -Dstartup.max-millis} and {@code -Dfirst-request.max-millis}.
+ */
+@QuarkusIntegrationTest
+class StartupLatencyIT implements DevServicesContext.ContextAware {
+
+    private static final Pattern STARTED = Pattern.compile("started in ([0-9.]+)s");
+
+    private Map<String, String> devServicesProperties;
+
+    @Override
+    public void setIntegrationTestContext(DevServicesContext context) {
+        devServicesProperties = context.devServicesProperties();
+    }
+
+    @Test
+    void newInstanceStartsAndServesFirstPlanQuickly() throws Exception {
+        Path nativeImage = Path.of(System.getProperty("native.image.path", "target/backend-1.0.0-SNAPSHOT-runner"));
+        boolean isNative = Files.isExecutable(nativeImage);
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+
+        List<String> command = new ArrayList<>();
+        if (isNative) {
+            command.add(nativeImage.toString());
+        } else {
+            command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        }
+        // Test profile for the Dev Services connection, without the clean-at-start of the test run
+        command.add("-Dquarkus.profile=test");
+        command.add("-Dquarkus.flyway.clean-at-start=false");
+        command.add("-Dquarkus.http.port=" + port);
+        devServicesProperties.forEach((key, value) -> command.add("-D" + key + "=" + value));
+        if (!isNative) {
+            command.add("-jar");
+            command.add("target/quarkus-app/quarkus-run.jar");
+        }
+
+        long startNanos = System.nanoTime();
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+        // Kept for the failure report only
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        try {
+            CompletableFuture<Double> reportedStartup = new CompletableFuture<>();
+            Thread.ofVirtual().start(() -> {
+                try (BufferedReader lines = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    for (String line = lines.readLine(); line != null; line = lines.readLine()) {
+                        output.add(line);
+                        Matcher matcher = STARTED.matcher(line);
+                        if (matcher.find()) {
+                            reportedStartup.complete(Double.parseDouble(matcher.group(1)));
+                        }
+                    }
+                } catch (Exception e) {
+                    reportedStartup.completeExceptionally(e);
+                }
+                reportedStartup.completeExceptionally(new IllegalStateException("Instance exited before starting"));
+            });
+            double startupSeconds = reportedStartup.get(2, TimeUnit.MINUTES);
+            long readyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+            HttpClient client = HttpClient.newHttpClient();
+            HttpRequest request = HttpRequest.newBuilder(
+                            URI.create("http://localhost:" + port + "/api/production-planning/suggestions"))
+                    .header("Accept", "application/json")
+                    .timeout(Duration.ofMinutes(1))
+                    .build();
+            long requestNanos = System.nanoTime();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            long firstRequestMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - requestNanos);
+
+            System.out.printf("%s startup: %.3fs reported, %dms until listening; first plan request: %dms%n",
+                    isNative ? "native" : "jvm", startupSeconds, readyMillis, firstRequestMillis);
+
+            assertEquals(200, response.statusCode());
+            String expected = given().when().get("/api/production-planning/suggestions")
+                    .then().statusCode(200)
+                    .extract().asString();
+            assertEquals(expected, response.body());
+
+            long maxStartup = Long.getLong("startup.max-millis", isNative ? 1_000 : 15_000);
+            long maxFirstRequest = Long.getLong("first-request.max-millis", isNative ? 500 : 5_000);
+            assertTrue(startupSeconds * 1000 <= maxStartup,
+                    "startup took " + startupSeconds + "s, limit " + maxStartup + "ms");
+            assertTrue(firstRequestMillis <= maxFirstRequest,
+                    "first request took " + firstRequestMillis + "ms, limit " + maxFirstRequest + "ms");
+        } catch (Exception | AssertionError e) {
+            synchronized (output) {
+                System.err.println("Output of the second instance:");
+                output.forEach(System.err::println);
+            }
+            throw e;
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.projedata.resource;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+
+/** {@link ImportResourceTest} against the packaged application; with {@code -Dnative}, the native executable. */
+@QuarkusIntegrationTest
+class ImportResourceIT extends ImportResourceTest {
+}
@@ -0,0 +1,194 @@
+package com.projedata.resource;
+
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+
+@QuarkusTest
+class ImportResourceTest {
+
+    @BeforeEach
+    void cleanup() {
+        var productIds = given()
+                .when().get("/api/products")
+                .then().statusCode(200)
+                .extract().jsonPath().getList("id", Integer.class);
+        for (Integer id : productIds) {
+            given().when().delete("/api/products/" + id).then().statusCode(204);
+        }
+
+        var rmIds = given()
+                .when().get("/api/raw-materials")
+                .then().statusCode(200)
+                .extract().jsonPath().getList("id", Integer.class);
+        for (Integer id : rmIds) {
+            given().when().delete("/api/raw-materials/" + id).then().statusCode(204);
+        }
+    }
+
+    @Test
+    void importRawMaterials_csvReportsBadRowsAndImportsTheRest() {
+        given()
+            .contentType("text/csv")
+            .body("""
+                code,name,stockQuantity
+                MP-001,Prancha de Pinus,120
+                MP-002,Cola para Madeira,abc
+                MP-003,"Parafuso 4,0mm",500.5
+                """)
+            .when().post("/api/import/raw-materials")
+            .then()
+            .statusCode(200)
+            .body("imported", equalTo(2))
+            .body("rejected", equalTo(1))
+            .body("errors[0].line", equalTo(3))
+            .body("errors[0].message", containsString("stockQuantity"));
+
+        given()
+            .when().get("/api/raw-materials?sort=name")
+            .then()
+            .statusCode(200)
+            .body("$", hasSize(2))
+            .body("[0].name", equalTo("Parafuso 4,0mm"))
+            .body("[0].code", equalTo("MP-003"))
+            .body("[1].stockQuantity", equalTo(120.0F));
+    }
+
+    @Test
+    void importRawMaterials_csvIgnoresByteOrderMarkAndUpdatesByCode() {
+        String csv = """
+            code,name,stockQuantity
+            MP-001,Prancha de Pinus,120
+            """;
+        // Excel's "CSV UTF-8" export starts with a byte-order mark
+        for (int i = 0; i < 2; i++) {
+            given()
+                .contentType("text/csv")
+                .body(("\uFEFF" + csv).getBytes(StandardCharsets.UTF_8))
+                .when().post("/api/import/raw-materials")
+                .then()
+                .statusCode(200)
+                .body("imported", equalTo(1));
+        }
+
+        given()
+            .when().get("/api/raw-materials")
+            .then()
+            .statusCode(200)
+            .body("$", hasSize(1))
+            .body("[0].code", equalTo("MP-001"));
+    }
+
+    @Test
+    void importRawMaterials_csvRejectsInvalidHeader() {
+        given()
+            .contentType("text/csv")
+            .body("""
+                code,name
+                MP-001,Prancha de Pinus
+                """)
+            .when().post("/api/import/raw-materials")
+            .then()
+            .statusCode(400);
+        given()
+            .contentType("text/csv")
+            .body("""
+                code,"name,stockQuantity
+                MP-001,Prancha de Pinus,120
+                """)
+            .when().post("/api/import/raw-materials")
+            .then()
+            .statusCode(400);
+
+        given()
+            .when().get("/api/raw-materials")
+            .then()
+            .statusCode(200)
+            .body("$", hasSize(0));
+    }
+
+    @Test
+    void importRawMaterials_updatesRowsWithAnExistingCode() {
+        given()
+            .contentType("application/x-ndjson")
+            .body("""
+                {"code": "MP-001", "name": "Prancha de Pinus", "stockQuantity": 120}
+                """)
+            .when().post("/api/import/raw-materials")
+            .then().statusCode(200).body("imported", equalTo(1));
+
+        given()
+            .contentType("application/x-ndjson")
+            .body("""
+                {"code": "MP-001", "name": "Prancha de Pinus 2m", "stockQuantity": 80.25}
+                """)
+            .when().post("/api/import/raw-materials")
+            .then().statusCode(200).body("imported", equalTo(1));
+
+        given()
+            .when().get("/api/raw-materials")
+            .then()
+            .statusCode(200)
+            .body("$", hasSize(1))
+            .body("[0].name", equalTo("Prancha de Pinus 2m"))
+            .body("[0].stockQuantity", equalTo(80.25F));
+    }
+
+    @Test
+    void importBom_resolvesReferencesByCodeOrName() {
+        given()
+            .contentType("application/x-ndjson")
+            .body("""
+                {"code": "MP-001", "name": "Prancha de Pinus", "stockQuantity": 120}
+                {"name": "Cola para Madeira", "stockQuantity": 15.5}
+                """)
+            .when().post("/api/import/raw-materials")
+            .then().statusCode(200).body("imported", equalTo(2));
+        given()
+            .contentType("text/csv")
+            .body("""
+                code,name,value
+                PA-001,Mesa de Jantar,700.00
+                """)
+            .when().post("/api/import/products")
+            .then().statusCode(200).body("imported", equalTo(1));
+
+        given()
+            .contentType("text/csv")
+            .body("""
+                product,rawMaterial,requiredQuantity
+                PA-001,MP-001,6
+                Mesa de Jantar,Cola para Madeira,0.5
+                PA-001,Verniz,1
+                """)
+            .when().post("/api/import/bom")
+            .then()
+            .statusCode(200)
+            .body("imported", equalTo(2))
+            .body("errors[0].line", equalTo(4))
+            .body("errors[0].message", containsString("Verniz"));
+
+        int productId = given()
+            .when().get("/api/products")
+            .then().statusCode(200)
+            .extract().jsonPath().getInt("[0].id");
+        given()
+            .when().get("/api/products/" + productId)
+            .then()
+            .statusCode(200)
+            .body("code", equalTo("PA-001"))
+            .body("rawMaterials", hasSize(2));
+
+        // The bulk import invalidates the cached plan
+        given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .body("suggestions[0].producibleQuantity", equalTo(20));
+    }
+}
@@ -0,0 +1,329 @@
+package com.projedata.resource;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.quarkus.test.junit.QuarkusTest;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static io.restassured.RestAssured.withArgs;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@QuarkusTest
+class ProductResourceTest {
+
+    @BeforeEach
+    void cleanup() {
+        // Deleting a product also removes it from the BOMs that use it as a sub-assembly
+        var productIds = given()
+                .when().get("/api/products")
+                .then().statusCode(200)
+                .extract().jsonPath().getList("id", Integer.class);
+        for (Integer id : productIds) {
+            given().when().delete("/api/products/" + id).then().statusCode(204);
+        }
+
+        var rmIds = given()
+                .when().get("/api/raw-materials")
+                .then().statusCode(200)
+                .extract().jsonPath().getList("id", Integer.class);
+        for (Integer id : rmIds) {
+            given().when().delete("/api/raw-materials/" + id).then().statusCode(204);
+        }
+    }
+
+    private int createProduct(String name, String value) {
+        return given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"name": "%s", "value": %s}
+                """, name, value))
+            .when().post("/api/products")
+            .then().statusCode(201)
+            .extract().jsonPath().getInt("id");
+    }
+
+    private void addComponent(int productId, int componentId, int expectedStatus) {
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"componentId": %d, "requiredQuantity": 2.0}
+                """, componentId))
+            .when().post("/api/products/" + productId + "/components")
+            .then().statusCode(expectedStatus);
+    }
+
+    @Test
+    void addComponent_showsUpInProductDetail() {
+        int drawer = createProduct("Gaveta", "50.00");
+        int dresser = createProduct("Cômoda", "900.00");
+
+        addComponent(dresser, drawer, 201);
+
+        given()
+            .when().get("/api/products/" + dresser)
+            .then()
+            .statusCode(200)
+            .body("components", hasSize(1))
+            .body("components[0].componentId", equalTo(drawer))
+            .body("components[0].componentName", equalTo("Gaveta"));
+    }
+
+    @Test
+    void addComponent_rejectsCycles() {
+        int a = createProduct("Módulo A", "10.00");
+        int b = createProduct("Módulo B", "20.00");
+        int c = createProduct("Módulo C", "30.00");
+
+        addComponent(a, a, 400);
+        addComponent(a, b, 201);
+        addComponent(b, c, 201);
+        addComponent(c, a, 400);
+        addComponent(a, c, 201);
+    }
+
+    @Test
+    void addComponent_returns404ForUnknownComponent() {
+        int a = createProduct("Módulo A", "10.00");
+        addComponent(a, 999999, 404);
+    }
+
+    private int createRawMaterial(String name) {
+        return given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"name": "%s", "stockQuantity": 100}
+                """, name))
+            .when().post("/api/raw-materials")
+            .then().statusCode(201)
+            .extract().jsonPath().getInt("id");
+    }
+
+    @Test
+    void replaceBom_appliesOnlyTheDifference() {
+        int table = createProduct("Mesa", "700.00");
+        int plank = createRawMaterial("Prancha");
+        int glue = createRawMaterial("Cola");
+        int screw = createRawMaterial("Parafuso");
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                [{"rawMaterialId": %d, "requiredQuantity": 6}, {"rawMaterialId": %d, "requiredQuantity": 1}]
+                """, plank, glue))
+            .when().put("/api/products/" + table + "/raw-materials")
+            .then().statusCode(200).body("$", hasSize(2));
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                [{"rawMaterialId": %d, "requiredQuantity": 6}, {"rawMaterialId": %d, "requiredQuantity": 12}]
+                """, plank, screw))
+            .when().put("/api/products/" + table + "/raw-materials")
+            .then()
+            .statusCode(200)
+            .body("$", hasSize(2))
+            .body("find { it.rawMaterialId == %s }.requiredQuantity", withArgs(plank), equalTo(6.0F))
+            .body("find { it.rawMaterialId == %s }.rawMaterialName", withArgs(screw), equalTo("Parafuso"))
+            .body("find { it.rawMaterialId == %s }", withArgs(glue), nullValue());
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("[]")
+            .when().put("/api/products/" + table + "/raw-materials")
+            .then().statusCode(200).body("$", hasSize(0));
+    }
+
+    @Test
+    void replaceBom_rejectsDuplicatesAndUnknownRawMaterials() {
+        int table = createProduct("Mesa", "700.00");
+        int plank = createRawMaterial("Prancha");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                [{"rawMaterialId": %d, "requiredQuantity": 6}, {"rawMaterialId": %d, "requiredQuantity": 2}]
+                """, plank, plank))
+            .when().put("/api/products/" + table + "/raw-materials")
+            .then().statusCode(400);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                [{"rawMaterialId": %d, "requiredQuantity": 6}, {"rawMaterialId": 999999, "requiredQuantity": 2}]
+                """, plank))
+            .when().put("/api/products/" + table + "/raw-materials")
+            .then().statusCode(404);
+
+        given()
+            .when().get("/api/products/" + table + "/raw-materials")
+            .then().statusCode(200).body("$", hasSize(0));
+    }
+
+    @Test
+    void findById_isCachedAndFollowsBomChanges() {
+        int table = createProduct("Mesa", "700.00");
+        int plank = createRawMaterial("Prancha");
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"rawMaterialId": %d, "requiredQuantity": 6}
+                """, plank))
+            .when().post("/api/products/" + table + "/raw-materials")
+            .then().statusCode(201);
+
+        given().when().get("/api/products/" + table).then().statusCode(200).body("rawMaterials", hasSize(1));
+        given().when().get("/api/products/" + table).then().statusCode(200).body("rawMaterials", hasSize(1));
+        given()
+            .when().get("/api/cache/stats")
+            .then()
+            .statusCode(200)
+            .body("find { it.region == 'com.projedata.entity.Product.rawMaterials' }.hitCount", greaterThan(0));
+
+        // Replaced with JDBC, so only the eviction keeps the cached collection correct
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                [{"rawMaterialId": %d, "requiredQuantity": 8}]
+                """, plank))
+            .when().put("/api/products/" + table + "/raw-materials")
+            .then().statusCode(200);
+        given()
+            .when().get("/api/products/" + table)
+            .then()
+            .statusCode(200)
+            .body("rawMaterials[0].requiredQuantity", equalTo(8.0F));
+
+        given().when().delete("/api/products/" + table + "/raw-materials/" + plank).then().statusCode(204);
+        given().when().get("/api/products/" + table).then().statusCode(200).body("rawMaterials", hasSize(0));
+    }
+
+    @Test
+    void capacity_explodesSubAssembliesAndReportsTheBottleneck() {
+        int plank = createRawMaterial("Prancha");
+        int screw = createRawMaterial("Parafuso");
+        int drawer = createProduct("Gaveta", "50.00");
+        int dresser = createProduct("Cômoda", "900.00");
+        int shelf = createProduct("Prateleira", "80.00");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                [{"rawMaterialId": %d, "requiredQuantity": 30}, {"rawMaterialId": %d, "requiredQuantity": 40}]
+                """, plank, screw))
+            .when().put("/api/products/" + drawer + "/raw-materials")
+            .then().statusCode(200);
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                [{"rawMaterialId": %d, "requiredQuantity": 10}]
+                """, plank))
+            .when().put("/api/products/" + dresser + "/raw-materials")
+            .then().statusCode(200);
+        // Two drawers per dresser: 70 planks and 80 screws per unit
+        addComponent(dresser, drawer, 201);
+
+        given()
+            .when().get("/api/products/capacity")
+            .then()
+            .statusCode(200)
+            .body("productId", contains(drawer, dresser, shelf))
+            .body("capacity", contains(2, 1, null))
+            .body("limitingRawMaterialId", contains(screw, plank, null));
+
+        given()
+            .when().get("/api/products/" + drawer + "/capacity")
+            .then()
+            .statusCode(200)
+            .body("name", equalTo("Gaveta"))
+            .body("capacity", equalTo(2));
+
+        given()
+            .when().get("/api/products/999999/capacity")
+            .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void capacity_sumsASubAssemblyReachedThroughSeveralPaths() {
+        int plank = createRawMaterial("Prancha");
+        int frame = createProduct("Quadro", "20.00");
+        int left = createProduct("Lateral esquerda", "30.00");
+        int right = createProduct("Lateral direita", "30.00");
+        int cabinet = createProduct("Armário", "600.00");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                [{"rawMaterialId": %d, "requiredQuantity": 1}]
+                """, plank))
+            .when().put("/api/products/" + frame + "/raw-materials")
+            .then().statusCode(200);
+        addComponent(left, frame, 201);
+        addComponent(right, frame, 201);
+        addComponent(cabinet, left, 201);
+        addComponent(cabinet, right, 201);
+
+        // Two of each side, two frames per side: 8 planks per cabinet
+        given()
+            .when().get("/api/products/" + cabinet + "/capacity")
+            .then()
+            .statusCode(200)
+            .body("capacity", equalTo(12))
+            .body("limitingRawMaterialId", equalTo(plank));
+    }
+
+    @Test
+    void binaryFormats_areNegotiatedByContentTypeAndAccept() throws IOException {
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        ObjectMapper cbor = new ObjectMapper(new CBORFactory());
+
+        byte[] created = given()
+            .contentType(BinaryJsonProvider.APPLICATION_SMILE)
+            .accept(BinaryJsonProvider.APPLICATION_SMILE)
+            .body(smile.writeValueAsBytes(Map.of("name", "Mesa", "value", 350.00)))
+            .when().post("/api/products")
+            .then()
+            .statusCode(201)
+            .contentType(BinaryJsonProvider.APPLICATION_SMILE)
+            .extract().asByteArray();
+        int id = smile.readTree(created).get("id").asInt();
+
+        byte[] list = given()
+            .accept(BinaryJsonProvider.APPLICATION_CBOR)
+            .when().get("/api/products")
+            .then()
+            .statusCode(200)
+            .contentType(BinaryJsonProvider.APPLICATION_CBOR)
+            .extract().asByteArray();
+        JsonNode products = cbor.readTree(list);
+        assertEquals(1, products.size());
+        assertEquals(id, products.get(0).get("id").asInt());
+        assertEquals("Mesa", products.get(0).get("name").asText());
+        assertEquals(0, products.get(0).get("value").decimalValue().compareTo(new BigDecimal("350.00")));
+
+        // Validation applies whatever the encoding
+        given()
+            .contentType(BinaryJsonProvider.APPLICATION_CBOR)
+            .body(cbor.writeValueAsBytes(Map.of("name", "", "value", 10)))
+            .when().post("/api/products")
+            .then()
+            .statusCode(400);
+
+        // Without an explicit Accept the API still answers in JSON
+        given()
+            .when().get("/api/products/" + id)
+            .then()
+            .statusCode(200)
+            .contentType(ContentType.JSON)
+            .body("name", equalTo("Mesa"));
+    }
+}
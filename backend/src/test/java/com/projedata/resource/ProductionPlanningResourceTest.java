@@ -1,16 +1,50 @@
 package com.projedata.resource;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import io.quarkus.test.common.http.TestHTTPResource;
 import io.quarkus.test.junit.QuarkusTest;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
 import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.hamcrest.Matchers.*;
 
 @QuarkusTest
 class ProductionPlanningResourceTest {
 
+    @TestHTTPResource("/api/production-planning/suggestions")
+    URI suggestions;
+
+    @TestHTTPResource("/api/production-planning/suggestions/events")
+    URI suggestionEvents;
+
     @BeforeEach
     void cleanup() {
         // Delete products first (cascade removes BOM), then raw materials
@@ -81,4 +115,654 @@ class ProductionPlanningResourceTest {
             .body("suggestions[0].producibleQuantity", equalTo(2))
             .body("grandTotalValue", equalTo(700.0F));
     }
+
+    @Test
+    void suggestions_followStockAndBomChanges() {
+        int rmId = createRawMaterial("Prancha", "6.0");
+        int productId = createProductWithBom("Mesa", "350.00", rmId, "3.0");
+
+        given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .body("suggestions[0].producibleQuantity", equalTo(2));
+
+        // Stock change: floor(12/3) = 4
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"name": "Prancha", "stockQuantity": 12.0}
+                """)
+            .when().put("/api/raw-materials/" + rmId)
+            .then().statusCode(200);
+
+        given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .body("suggestions[0].producibleQuantity", equalTo(4));
+
+        // BOM change: floor(12/4) = 3
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"rawMaterialId": %d, "requiredQuantity": 4.0}
+                """, rmId))
+            .when().put("/api/products/" + productId + "/raw-materials/" + rmId)
+            .then().statusCode(200);
+
+        given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .body("suggestions[0].producibleQuantity", equalTo(3))
+            .body("grandTotalValue", equalTo(1050.0F));
+    }
+
+    @Test
+    void suggestions_followSubAssemblyChanges() {
+        int rmId = createRawMaterial("Prancha", "20.0");
+        int drawerId = createProductWithBom("Gaveta", "50.00", rmId, "2");
+        int dresserId = createProductWithBom("Cômoda", "900.00", rmId, "4");
+
+        // floor(20/4) = 5 dressers, nothing left for drawers
+        given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .body("suggestions.find { it.productName == 'Cômoda' }.producibleQuantity", equalTo(5));
+
+        // 3 drawers per dresser: 4 + 3 × 2 = 10 planks → 2 dressers
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"componentId": %d, "requiredQuantity": 3.0}
+                """, drawerId))
+            .when().post("/api/products/" + dresserId + "/components")
+            .then().statusCode(201);
+
+        given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .body("suggestions.find { it.productName == 'Cômoda' }.producibleQuantity", equalTo(2))
+            .body("suggestions.find { it.productName == 'Gaveta' }.producibleQuantity", equalTo(0));
+
+        // Editing the sub-assembly re-explodes the dresser: 4 + 3 × 1 = 7 → 2 dressers, 6 planks left
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"rawMaterialId": %d, "requiredQuantity": 1.0}
+                """, rmId))
+            .when().put("/api/products/" + drawerId + "/raw-materials/" + rmId)
+            .then().statusCode(200);
+
+        given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .body("suggestions.find { it.productName == 'Cômoda' }.producibleQuantity", equalTo(2))
+            .body("suggestions.find { it.productName == 'Gaveta' }.producibleQuantity", equalTo(6))
+            .body("grandTotalValue", equalTo(2100.0F));
+    }
+
+    @Test
+    void suggestions_treatRequirementBeyondFixedPointRangeAsUnproducible() {
+        int rmId = createRawMaterial("Prancha", "1000.0");
+        int partId = createProductWithBom("Peça", "10.00", rmId, "1000000");
+        int moduleId = createProductWithBom("Módulo", "20.00", rmId, "1.0");
+        int cabinetId = createProductWithBom("Armário", "30.00", rmId, "1.0");
+        // 1e6 per level: the cabinet needs more than 1e18 planks per unit, beyond the fixed-point range
+        for (int[] edge : new int[][] {{moduleId, partId}, {cabinetId, moduleId}}) {
+            given()
+                .contentType(ContentType.JSON)
+                .body(String.format("""
+                    {"componentId": %d, "requiredQuantity": 1000000}
+                    """, edge[1]))
+                .when().post("/api/products/" + edge[0] + "/components")
+                .then().statusCode(201);
+        }
+
+        given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .body("suggestions.find { it.productName == 'Armário' }.producibleQuantity", equalTo(0));
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"componentId": %d, "requiredQuantity": 1e12}
+                """, partId))
+            .when().post("/api/products/" + cabinetId + "/components")
+            .then().statusCode(400);
+    }
+
+    @Test
+    void scenarios_evaluatesOverridesWithoutTouchingStock() {
+        int rmId = createRawMaterial("Prancha", "6.0");
+        createProductWithBom("Mesa", "350.00", rmId, "3.0");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"scenarios": [
+                    {"name": "Recebimento", "stockOverrides": [{"rawMaterialId": %d, "stockQuantity": 15.0}]},
+                    {"name": "Fornecedor falha", "stockOverrides": [{"rawMaterialId": %d, "stockQuantity": 0}]},
+                    {"name": "Atual", "stockOverrides": []}
+                ]}
+                """, rmId, rmId))
+            .when().post("/api/production-planning/scenarios")
+            .then()
+            .statusCode(200)
+            .body("$", hasSize(3))
+            .body("[0].name", equalTo("Recebimento"))
+            .body("[0].plan.suggestions[0].producibleQuantity", equalTo(5))
+            .body("[1].plan.suggestions[0].producibleQuantity", equalTo(0))
+            .body("[1].plan.grandTotalValue", equalTo(0.0F))
+            .body("[2].plan.suggestions[0].producibleQuantity", equalTo(2));
+
+        given()
+            .when().get("/api/raw-materials/" + rmId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", equalTo(6.0F));
+    }
+
+    @Test
+    void scenarios_returns404ForUnknownRawMaterial() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"scenarios": [{"name": "X", "stockOverrides": [{"rawMaterialId": 99999, "stockQuantity": 1}]}]}
+                """)
+            .when().post("/api/production-planning/scenarios")
+            .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void scenarios_returns400ForOverrideOutsideStockPrecision() {
+        int rmId = createRawMaterial("Prancha", "6.0");
+        createProductWithBom("Mesa", "350.00", rmId, "3.0");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"scenarios": [{"name": "X", "stockOverrides": [{"rawMaterialId": %d, "stockQuantity": 1e15}]}]}
+                """, rmId))
+            .when().post("/api/production-planning/scenarios")
+            .then()
+            .statusCode(400);
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"scenarios": [{"name": "X", "stockOverrides": [{"rawMaterialId": %d, "stockQuantity": 2.99995}]}]}
+                """, rmId))
+            .when().post("/api/production-planning/scenarios")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void suggestions_returns304WhileCatalogIsUnchanged() {
+        String etag = given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .header("ETag", notNullValue())
+            .extract().header("ETag");
+
+        given()
+            .header("If-None-Match", etag)
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(304);
+
+        createRawMaterial("Prancha", "6.0");
+
+        given()
+            .header("If-None-Match", etag)
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .header("ETag", not(equalTo(etag)));
+    }
+
+    @Test
+    void suggestions_optimalModeReportsGap() {
+        given()
+            .queryParam("mode", "optimal")
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .body("suggestions", hasSize(0))
+            .body("optimal", equalTo(true))
+            .body("optimalityGap", equalTo(0.0F));
+    }
+
+    @Test
+    void suggestions_negotiatesCborAndCompressesJson() throws Exception {
+        int rmId = createRawMaterial("Prancha", "6.0");
+        createProductWithBom("Mesa", "350.00", rmId, "3.0");
+
+        byte[] body = given()
+            .accept(BinaryJsonProvider.APPLICATION_CBOR)
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .contentType(BinaryJsonProvider.APPLICATION_CBOR)
+            .header("ETag", notNullValue())
+            .extract().asByteArray();
+        JsonNode plan = new ObjectMapper(new CBORFactory()).readTree(body);
+        assertEquals(2, plan.get("suggestions").get(0).get("producibleQuantity").asInt());
+        assertEquals(700, plan.get("grandTotalValue").asInt());
+
+        HttpResponse<InputStream> compressed = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(suggestions)
+                        .header("Accept", "application/json")
+                        .header("Accept-Encoding", "gzip")
+                        .build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        assertEquals(200, compressed.statusCode());
+        assertEquals("gzip", compressed.headers().firstValue("Content-Encoding").orElse(null));
+        try (InputStream json = new GZIPInputStream(compressed.body())) {
+            assertEquals(2, new JsonPath(json).getInt("suggestions[0].producibleQuantity"));
+        }
+    }
+
+    @Test
+    void suggestions_greedyModeOmitsOptimalFields() {
+        given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .body("$", not(hasKey("optimal")))
+            .body("$", not(hasKey("optimalityGap")));
+    }
+
+    @Test
+    void suggestions_returns400ForUnknownMode() {
+        given()
+            .queryParam("mode", "fastest")
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void suggestions_streamsNdjsonWithTrailingTotal() {
+        int rmId = createRawMaterial("Prancha", "6.0");
+        createProductWithBom("Mesa", "350.00", rmId, "3.0");
+
+        String body = given()
+            .accept("application/x-ndjson")
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .contentType(startsWith("application/x-ndjson"))
+            .extract().asString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        JsonPath item = JsonPath.from(lines[0]);
+        assertEquals("Mesa", item.getString("productName"));
+        assertEquals(2, item.getLong("producibleQuantity"));
+        assertEquals(700.0F, JsonPath.from(lines[1]).getFloat("grandTotalValue"));
+    }
+
+    @Test
+    void horizon_carriesStockOverAndAppliesReceiptsInTheirPeriod() {
+        int plankId = createRawMaterial("Prancha", "6.0");
+        int screwId = createRawMaterial("Parafuso", "0");
+        createProductWithBom("Mesa", "350.00", plankId, "3.0");
+        int shelfId = createProductWithBom("Estante", "500.00", plankId, "2.0");
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"rawMaterialId": %d, "requiredQuantity": 4.0}
+                """, screwId))
+            .when().post("/api/products/" + shelfId + "/raw-materials")
+            .then().statusCode(201);
+
+        // Overdue receipts count in the first week; the last one falls after the horizon
+        scheduleReceipt(plankId, "2026-01-01", "2.0");
+        scheduleReceipt(screwId, "2026-01-14", "8.0");
+        scheduleReceipt(plankId, "2026-01-19", "9.0");
+        scheduleReceipt(plankId, "2026-01-26", "100.0");
+
+        given()
+            .queryParam("start", "2026-01-05")
+            .queryParam("period", "week")
+            .queryParam("periods", 3)
+            .when().get("/api/production-planning/horizon")
+            .then()
+            .statusCode(200)
+            .body("periods", hasSize(3))
+            .body("periods[1].start", equalTo("2026-01-12"))
+            .body("periods[1].end", equalTo("2026-01-19"))
+            // Week 1: 8 planks, no screws; only tables
+            .body("periods[0].items.productName", contains("Mesa"))
+            .body("periods[0].items.producibleQuantity", contains(2))
+            // Week 2: the screws unblock one shelf with the 2 planks left
+            .body("periods[1].items.productName", contains("Estante"))
+            .body("periods[1].items.producibleQuantity", contains(1))
+            // Week 3: 9 planks and 4 screws; one shelf, then tables with the rest, in value order
+            .body("periods[2].items.productName", contains("Estante", "Mesa"))
+            .body("periods[2].items.producibleQuantity", contains(1, 2))
+            .body("periods[2].totalValue", equalTo(1200.0F))
+            .body("grandTotalValue", equalTo(2400.0F));
+
+        // Planning never touches the stock
+        given()
+            .when().get("/api/raw-materials/" + plankId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", equalTo(6.0F));
+    }
+
+    @Test
+    void horizon_returns400ForInvalidParameters() {
+        given()
+            .queryParam("period", "month")
+            .when().get("/api/production-planning/horizon")
+            .then().statusCode(400);
+        given()
+            .queryParam("start", "05/01/2026")
+            .when().get("/api/production-planning/horizon")
+            .then().statusCode(400);
+        given()
+            .queryParam("periods", 0)
+            .when().get("/api/production-planning/horizon")
+            .then().statusCode(400);
+    }
+
+    @Test
+    void commit_consumesStockAndUpdatesPlan() {
+        int rmId = createRawMaterial("Prancha", "12.0");
+        int productId = createProductWithBom("Mesa", "350.00", rmId, "3.0");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(commitBody(productId, 3))
+            .when().post("/api/production-planning/commit")
+            .then()
+            .statusCode(200)
+            .body("[0].id", equalTo(rmId))
+            .body("[0].stockQuantity", equalTo(3.0F));
+
+        given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .body("suggestions[0].producibleQuantity", equalTo(1));
+    }
+
+    @Test
+    void commit_rejectsWholeCommitWhenStockWouldGoNegative() {
+        int plankId = createRawMaterial("Prancha", "12.0");
+        int screwId = createRawMaterial("Parafuso", "1.0");
+        int tableId = createProductWithBom("Mesa", "350.00", plankId, "3.0");
+        int shelfId = createProductWithBom("Estante", "500.00", screwId, "2.0");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"items": [{"productId": %d, "quantity": 2}, {"productId": %d, "quantity": 1}]}
+                """, tableId, shelfId))
+            .when().post("/api/production-planning/commit")
+            .then()
+            .statusCode(409);
+
+        given()
+            .when().get("/api/raw-materials/" + plankId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", equalTo(12.0F));
+    }
+
+    @Test
+    void commit_rejectsQuantitiesThatOverflowWhenSummed() {
+        int plankId = createRawMaterial("Prancha", "12.0");
+        int tableId = createProductWithBom("Mesa", "350.00", plankId, "3.0");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"items": [{"productId": %d, "quantity": %d}, {"productId": %d, "quantity": %d}]}
+                """, tableId, Long.MAX_VALUE, tableId, Long.MAX_VALUE))
+            .when().post("/api/production-planning/commit")
+            .then()
+            .statusCode(400);
+
+        given()
+            .when().get("/api/raw-materials/" + plankId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", equalTo(12.0F));
+        given()
+            .when().get("/api/raw-materials/" + plankId + "/movements")
+            .then()
+            .statusCode(200)
+            .body("kind", not(hasItem("CONSUMPTION")));
+    }
+
+    @Test
+    void commit_doesNotLoseUpdatesUnderConcurrency() throws Exception {
+        int rmId = createRawMaterial("Prancha", "10.0");
+        int productId = createProductWithBom("Mesa", "350.00", rmId, "1.0");
+
+        int attempts = 15;
+        ExecutorService pool = Executors.newFixedThreadPool(attempts);
+        try {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < attempts; i++) {
+                statuses.add(pool.submit(() -> given()
+                    .contentType(ContentType.JSON)
+                    .body(commitBody(productId, 1))
+                    .when().post("/api/production-planning/commit")
+                    .then().extract().statusCode()));
+            }
+            int accepted = 0;
+            for (Future<Integer> status : statuses) {
+                int code = status.get();
+                assertTrue(code == 200 || code == 409, "unexpected status " + code);
+                accepted += code == 200 ? 1 : 0;
+            }
+            assertEquals(10, accepted);
+        } finally {
+            pool.shutdown();
+        }
+
+        given()
+            .when().get("/api/raw-materials/" + rmId)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", equalTo(0.0F));
+    }
+
+    @Test
+    void suggestions_reflectLatestStockAfterConcurrentAdjusts() throws Exception {
+        int rmId = createRawMaterial("Prancha", "0");
+        createProductWithBom("Mesa", "350.00", rmId, "1.0");
+
+        int writers = 20;
+        ExecutorService pool = Executors.newFixedThreadPool(writers * 2);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < writers; i++) {
+                calls.add(pool.submit(() -> given()
+                    .contentType(ContentType.JSON)
+                    .body("""
+                        {"delta": 1.0}
+                        """)
+                    .when().post("/api/raw-materials/" + rmId + "/adjust")
+                    .then().statusCode(200)));
+                // Readers drain the pending changes while the writers are still committing
+                calls.add(pool.submit(() -> given()
+                    .when().get("/api/production-planning/suggestions")
+                    .then().statusCode(200)));
+            }
+            for (Future<?> call : calls) {
+                call.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200)
+            .body("suggestions[0].producibleQuantity", equalTo(writers));
+    }
+
+    @Test
+    void commit_returns404ForUnknownProduct() {
+        given()
+            .contentType(ContentType.JSON)
+            .body(commitBody(999999, 1))
+            .when().post("/api/production-planning/commit")
+            .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void suggestionEvents_sendSnapshotThenCoalescedDeltas() throws Exception {
+        int rmId = createRawMaterial("Prancha", "6.0");
+        int productId = createProductWithBom("Mesa", "350.00", rmId, "3.0");
+
+        HttpResponse<InputStream> response = HttpClient.newHttpClient().send(
+                HttpRequest.newBuilder(suggestionEvents).header("Accept", "text/event-stream").build(),
+                HttpResponse.BodyHandlers.ofInputStream());
+        BlockingQueue<JsonPath> events = new LinkedBlockingQueue<>();
+        Thread reader = Thread.ofVirtual().start(() -> {
+            try (BufferedReader lines = new BufferedReader(
+                    new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    if (line.startsWith("data:")) {
+                        events.add(new JsonPath(line.substring("data:".length()).trim()));
+                    }
+                }
+            } catch (IOException e) {
+                // Stream closed at the end of the test
+            }
+        });
+        try {
+            JsonPath snapshot = events.poll(10, TimeUnit.SECONDS);
+            assertNotNull(snapshot, "no snapshot received");
+            assertEquals("SNAPSHOT", snapshot.getString("type"));
+            assertEquals(2, snapshot.getInt("changed[0].producibleQuantity"));
+
+            // A burst of writes inside one coalesce window (1s in the test profile) is one delta
+            ExecutorService pool = Executors.newFixedThreadPool(3);
+            try {
+                List<Future<?>> writes = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    writes.add(pool.submit(() -> given()
+                        .contentType(ContentType.JSON)
+                        .body("""
+                            {"delta": 3.0}
+                            """)
+                        .when().post("/api/raw-materials/" + rmId + "/adjust")
+                        .then().statusCode(200)));
+                }
+                for (Future<?> write : writes) {
+                    write.get();
+                }
+            } finally {
+                pool.shutdown();
+            }
+            JsonPath delta = events.poll(10, TimeUnit.SECONDS);
+            assertNotNull(delta, "no delta received");
+            assertEquals("DELTA", delta.getString("type"));
+            assertEquals(5, delta.getInt("changed[0].producibleQuantity"));
+            assertEquals(1750.0F, delta.getFloat("grandTotalValue"));
+            assertNull(events.poll(2, TimeUnit.SECONDS), "writes were not coalesced");
+
+            // A rename changes the plan without changing any quantity
+            given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Mesa redonda", "value": 350.00}
+                    """)
+                .when().put("/api/products/" + productId)
+                .then().statusCode(200);
+            JsonPath rename = events.poll(10, TimeUnit.SECONDS);
+            assertNotNull(rename, "no delta received for the rename");
+            assertEquals("Mesa redonda", rename.getString("changed[0].productName"));
+
+            given().when().delete("/api/products/" + productId).then().statusCode(204);
+            JsonPath removal = events.poll(10, TimeUnit.SECONDS);
+            assertNotNull(removal, "no delta received");
+            assertEquals(List.of(productId), removal.getList("removed", Integer.class));
+            assertEquals(0.0F, removal.getFloat("grandTotalValue"));
+        } finally {
+            response.body().close();
+            reader.join(5000);
+        }
+    }
+
+    @Test
+    void metrics_exposePlanningHttpAndPersistenceMeters() {
+        given().when().get("/api/production-planning/suggestions").then().statusCode(200);
+
+        given()
+            .when().get("/q/metrics")
+            .then()
+            .statusCode(200)
+            .body(containsString("planning_compute_seconds_count{pass=\"rebuild\""))
+            .body(containsString("planning_catalog_products"))
+            .body(containsString("http_server_requests_seconds_bucket"))
+            .body(containsString("uri=\"/api/production-planning/suggestions\""))
+            .body(containsString("hibernate_"))
+            .body(containsString("agroal_"));
+    }
+
+    private int createRawMaterial(String name, String stock) {
+        return given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"name": "%s", "stockQuantity": %s}
+                """, name, stock))
+            .when().post("/api/raw-materials")
+            .then().statusCode(201)
+            .extract().jsonPath().getInt("id");
+    }
+
+    private int createProductWithBom(String name, String value, int rawMaterialId, String required) {
+        int productId = given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"name": "%s", "value": %s}
+                """, name, value))
+            .when().post("/api/products")
+            .then().statusCode(201)
+            .extract().jsonPath().getInt("id");
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"rawMaterialId": %d, "requiredQuantity": %s}
+                """, rawMaterialId, required))
+            .when().post("/api/products/" + productId + "/raw-materials")
+            .then().statusCode(201);
+        return productId;
+    }
+
+    private String commitBody(int productId, int quantity) {
+        return String.format("""
+            {"items": [{"productId": %d, "quantity": %d}]}
+            """, productId, quantity);
+    }
+
+    private void scheduleReceipt(int rawMaterialId, String expectedOn, String quantity) {
+        given()
+            .contentType(ContentType.JSON)
+            .body(String.format("""
+                {"expectedOn": "%s", "quantity": %s}
+                """, expectedOn, quantity))
+            .when().post("/api/raw-materials/" + rawMaterialId + "/scheduled-receipts")
+            .then().statusCode(201);
+    }
 }
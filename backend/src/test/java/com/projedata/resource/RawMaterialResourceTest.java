@@ -5,7 +5,14 @@ import io.restassured.http.ContentType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.hamcrest.Matchers.*;
 
 @QuarkusTest
@@ -154,4 +161,365 @@ class RawMaterialResourceTest {
             .then()
             .statusCode(404);
     }
+
+    @Test
+    void list_paginatesWithCursorFilterAndSort() {
+        for (String name : new String[] {"Prancha A", "Prancha B", "Prancha C", "Parafuso"}) {
+            given()
+                .contentType(ContentType.JSON)
+                .body(String.format("""
+                    {"name": "%s", "stockQuantity": 10.0}
+                    """, name))
+                .when().post("/api/raw-materials")
+                .then().statusCode(201);
+        }
+
+        String cursor = given()
+            .queryParam("name", "prancha")
+            .queryParam("sort", "name")
+            .queryParam("order", "desc")
+            .queryParam("limit", 2)
+            .when().get("/api/raw-materials")
+            .then()
+            .statusCode(200)
+            .header("X-Next-Cursor", notNullValue())
+            .body("name", contains("Prancha C", "Prancha B"))
+            .extract().header("X-Next-Cursor");
+
+        given()
+            .queryParam("name", "prancha")
+            .queryParam("sort", "name")
+            .queryParam("order", "desc")
+            .queryParam("limit", 2)
+            .queryParam("cursor", cursor)
+            .when().get("/api/raw-materials")
+            .then()
+            .statusCode(200)
+            .header("X-Next-Cursor", nullValue())
+            .body("name", contains("Prancha A"));
+    }
+
+    @Test
+    void list_rejectsCursorFromAnotherSort() {
+        for (int i = 0; i < 2; i++) {
+            given()
+                .contentType(ContentType.JSON)
+                .body("""
+                    {"name": "Prancha", "stockQuantity": 10.0}
+                    """)
+                .when().post("/api/raw-materials")
+                .then().statusCode(201);
+        }
+
+        String cursor = given()
+            .queryParam("limit", 1)
+            .when().get("/api/raw-materials")
+            .then()
+            .statusCode(200)
+            .extract().header("X-Next-Cursor");
+
+        given()
+            .queryParam("sort", "name")
+            .queryParam("limit", 1)
+            .queryParam("cursor", cursor)
+            .when().get("/api/raw-materials")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void stockChanges_areRecordedInTheLedger() {
+        int id = given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"name": "Chapa", "stockQuantity": 10.0}
+                """)
+            .when().post("/api/raw-materials")
+            .then().statusCode(201)
+            .extract().jsonPath().getInt("id");
+
+        String receivedAt = given()
+            .when().get("/api/raw-materials/" + id + "/movements")
+            .then()
+            .statusCode(200)
+            .body("kind", contains("RECEIPT"))
+            .body("quantity", contains(10.0F))
+            .extract().jsonPath().getString("[0].createdAt");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"name": "Chapa", "stockQuantity": 4.5}
+                """)
+            .when().put("/api/raw-materials/" + id)
+            .then().statusCode(200);
+
+        given()
+            .when().get("/api/raw-materials/" + id + "/movements")
+            .then()
+            .statusCode(200)
+            .body("kind", contains("ADJUSTMENT", "RECEIPT"))
+            .body("quantity", contains(-5.5F, 10.0F));
+
+        given()
+            .when().get("/api/raw-materials/" + id + "/stock")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", equalTo(4.5F));
+
+        given()
+            .queryParam("at", receivedAt)
+            .when().get("/api/raw-materials/" + id + "/stock")
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", equalTo(10.0F));
+    }
+
+    @Test
+    void stockLevel_returns400ForInvalidDate() {
+        int id = given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"name": "Chapa", "stockQuantity": 1.0}
+                """)
+            .when().post("/api/raw-materials")
+            .then().statusCode(201)
+            .extract().jsonPath().getInt("id");
+
+        given()
+            .queryParam("at", "yesterday")
+            .when().get("/api/raw-materials/" + id + "/stock")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void adjust_appliesDeltaAndRecordsMovement() {
+        int id = createMaterial("Parafuso", "10.0");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"delta": 2.5, "reference": "NF 123"}
+                """)
+            .when().post("/api/raw-materials/" + id + "/adjust")
+            .then()
+            .statusCode(200)
+            .body("rawMaterialId", equalTo(id))
+            .body("stockQuantity", equalTo(12.5F));
+
+        given()
+            .when().get("/api/raw-materials/" + id + "/movements")
+            .then()
+            .statusCode(200)
+            .body("kind", contains("RECEIPT", "RECEIPT"))
+            .body("reference[0]", equalTo("NF 123"));
+    }
+
+    @Test
+    void adjust_returns409AndChangesNothingWhenStockWouldGoNegative() {
+        int first = createMaterial("Parafuso", "10.0");
+        int second = createMaterial("Porca", "1.0");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"items": [
+                  {"rawMaterialId": %d, "delta": 5.0},
+                  {"rawMaterialId": %d, "delta": -2.0}
+                ]}
+                """.formatted(first, second))
+            .when().post("/api/raw-materials/adjust")
+            .then()
+            .statusCode(409);
+
+        given().when().get("/api/raw-materials/" + first).then().body("stockQuantity", equalTo(10.0F));
+        given().when().get("/api/raw-materials/" + first + "/movements").then().body("size()", is(1));
+    }
+
+    @Test
+    void adjust_returns404ForUnknownId() {
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"delta": 1.0}
+                """)
+            .when().post("/api/raw-materials/999999/adjust")
+            .then()
+            .statusCode(404);
+    }
+
+    @Test
+    void adjust_returns400WhenKindContradictsSign() {
+        int id = createMaterial("Parafuso", "10.0");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"delta": -1.0, "kind": "RECEIPT"}
+                """)
+            .when().post("/api/raw-materials/" + id + "/adjust")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void adjust_returns409WhenStockWouldExceedTheColumnRange() {
+        int id = createMaterial("Parafuso", "99999999999.0");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"delta": 1.0}
+                """)
+            .when().post("/api/raw-materials/" + id + "/adjust")
+            .then()
+            .statusCode(409);
+
+        given().when().get("/api/raw-materials/" + id + "/movements").then().body("size()", is(1));
+    }
+
+    @Test
+    void adjust_returns400ForZeroDelta() {
+        int id = createMaterial("Parafuso", "10.0");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"delta": 0}
+                """)
+            .when().post("/api/raw-materials/" + id + "/adjust")
+            .then()
+            .statusCode(400);
+    }
+
+    @Test
+    void adjustBatch_sumsDeltasPerRawMaterial() {
+        int first = createMaterial("Parafuso", "10.0");
+        int second = createMaterial("Porca", "4.0");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"items": [
+                  {"rawMaterialId": %d, "delta": 3.0},
+                  {"rawMaterialId": %d, "delta": -1.5, "kind": "CONSUMPTION"},
+                  {"rawMaterialId": %d, "delta": -4.0}
+                ]}
+                """.formatted(first, second, first))
+            .when().post("/api/raw-materials/adjust")
+            .then()
+            .statusCode(200)
+            .body("rawMaterialId", contains(first, second))
+            .body("stockQuantity", contains(9.0F, 2.5F));
+    }
+
+    @Test
+    void adjust_concurrentReceiptsAreNotLost() throws Exception {
+        int id = createMaterial("Parafuso", "0.0");
+        int receipts = 20;
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<Future<Integer>> statuses = new ArrayList<>();
+            for (int i = 0; i < receipts; i++) {
+                statuses.add(executor.submit(() -> given()
+                    .contentType(ContentType.JSON)
+                    .body("""
+                        {"delta": 1.0}
+                        """)
+                    .when().post("/api/raw-materials/" + id + "/adjust")
+                    .statusCode()));
+            }
+            for (Future<Integer> status : statuses) {
+                assertEquals(200, status.get());
+            }
+        }
+
+        given()
+            .when().get("/api/raw-materials/" + id)
+            .then()
+            .body("stockQuantity", equalTo(20.0F));
+    }
+
+    @Test
+    void scheduledReceipts_areListedByDateAndCancelled() {
+        int id = createMaterial("Parafuso", "10.0");
+
+        int later = given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"expectedOn": "2026-03-10", "quantity": 50.0, "reference": "PO-2"}
+                """)
+            .when().post("/api/raw-materials/" + id + "/scheduled-receipts")
+            .then()
+            .statusCode(201)
+            .body("rawMaterialId", equalTo(id))
+            .body("expectedOn", equalTo("2026-03-10"))
+            .extract().jsonPath().getInt("id");
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"expectedOn": "2026-03-02", "quantity": 20.0}
+                """)
+            .when().post("/api/raw-materials/" + id + "/scheduled-receipts")
+            .then().statusCode(201);
+
+        given()
+            .when().get("/api/raw-materials/" + id + "/scheduled-receipts")
+            .then()
+            .statusCode(200)
+            .body("expectedOn", contains("2026-03-02", "2026-03-10"))
+            .body("quantity", contains(20.0F, 50.0F));
+
+        // A scheduled receipt is not stock yet
+        given()
+            .when().get("/api/raw-materials/" + id)
+            .then()
+            .statusCode(200)
+            .body("stockQuantity", equalTo(10.0F));
+
+        given()
+            .when().delete("/api/raw-materials/" + id + "/scheduled-receipts/" + later)
+            .then().statusCode(204);
+        given()
+            .when().delete("/api/raw-materials/" + id + "/scheduled-receipts/" + later)
+            .then().statusCode(404);
+        given()
+            .when().get("/api/raw-materials/" + id + "/scheduled-receipts")
+            .then()
+            .statusCode(200)
+            .body("expectedOn", contains("2026-03-02"));
+    }
+
+    @Test
+    void scheduledReceipts_rejectNonPositiveQuantityAndUnknownMaterial() {
+        int id = createMaterial("Parafuso", "10.0");
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"expectedOn": "2026-03-10", "quantity": 0}
+                """)
+            .when().post("/api/raw-materials/" + id + "/scheduled-receipts")
+            .then().statusCode(400);
+
+        given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"expectedOn": "2026-03-10", "quantity": 5}
+                """)
+            .when().post("/api/raw-materials/999999/scheduled-receipts")
+            .then().statusCode(404);
+    }
+
+    private static int createMaterial(String name, String stockQuantity) {
+        return given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"name": "%s", "stockQuantity": %s}
+                """.formatted(name, stockQuantity))
+            .when().post("/api/raw-materials")
+            .then().statusCode(201)
+            .extract().jsonPath().getInt("id");
+    }
 }
@@ -2,12 +2,16 @@ package com.projedata.service;
 
 import com.projedata.dto.ProductionSuggestionResponse;
 import com.projedata.entity.Product;
+import com.projedata.entity.ProductComponent;
+import com.projedata.entity.ProductComponentId;
 import com.projedata.entity.ProductRawMaterial;
 import com.projedata.entity.ProductRawMaterialId;
 import com.projedata.entity.RawMaterial;
 import io.quarkus.test.junit.QuarkusTest;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -21,12 +25,18 @@ class ProductionPlanningServiceTest {
     @Inject
     ProductionPlanningService service;
 
+    @Inject
+    SessionFactory sessionFactory;
+
     @BeforeEach
     @Transactional
     void cleanup() {
         ProductRawMaterial.deleteAll();
+        ProductComponent.deleteAll();
         Product.deleteAll();
         RawMaterial.deleteAll();
+        // Setups below write through Panache directly, bypassing the services' change events
+        service.invalidate();
     }
 
     // --- Setup helpers: persist data in their own transaction ---
@@ -155,6 +165,120 @@ class ProductionPlanningServiceTest {
         bom2.persist();
     }
 
+    @Transactional
+    void setupGreedyTrap() {
+        RawMaterial rm = new RawMaterial();
+        rm.name = "Prancha de Pinus";
+        rm.stockQuantity = new BigDecimal("10.0000");
+        rm.persist();
+
+        Product big = new Product();
+        big.name = "Estante";
+        big.value = new BigDecimal("100.00");
+        big.persist();
+
+        Product small = new Product();
+        small.name = "Banqueta";
+        small.value = new BigDecimal("70.00");
+        small.persist();
+
+        ProductRawMaterial bomBig = new ProductRawMaterial();
+        bomBig.id = new ProductRawMaterialId();
+        bomBig.id.productId = big.id;
+        bomBig.id.rawMaterialId = rm.id;
+        bomBig.product = big;
+        bomBig.rawMaterial = rm;
+        bomBig.requiredQuantity = new BigDecimal("6.0000"); // greedy: 1 Estante, 4 left → 0 Banquetas
+        bomBig.persist();
+
+        ProductRawMaterial bomSmall = new ProductRawMaterial();
+        bomSmall.id = new ProductRawMaterialId();
+        bomSmall.id.productId = small.id;
+        bomSmall.id.rawMaterialId = rm.id;
+        bomSmall.product = small;
+        bomSmall.rawMaterial = rm;
+        bomSmall.requiredQuantity = new BigDecimal("5.0000"); // optimal: 2 Banquetas = 140
+        bomSmall.persist();
+    }
+
+    @Transactional
+    void setupCatalog(int productCount) {
+        RawMaterial rm = new RawMaterial();
+        rm.name = "Cantoneira de Aço";
+        rm.stockQuantity = new BigDecimal("500.0000");
+        rm.persist();
+
+        for (int i = 0; i < productCount; i++) {
+            Product p = new Product();
+            p.name = "Produto " + i;
+            p.value = new BigDecimal(100 + i);
+            p.persist();
+
+            ProductRawMaterial bom = new ProductRawMaterial();
+            bom.id = new ProductRawMaterialId();
+            bom.id.productId = p.id;
+            bom.id.rawMaterialId = rm.id;
+            bom.product = p;
+            bom.rawMaterial = rm;
+            bom.requiredQuantity = new BigDecimal("2.0000");
+            bom.persist();
+        }
+    }
+
+    @Transactional
+    void setupSubAssembly() {
+        RawMaterial rm = new RawMaterial();
+        rm.name = "Prancha de Pinus";
+        rm.stockQuantity = new BigDecimal("20.0000");
+        rm.persist();
+
+        Product drawer = new Product();
+        drawer.name = "Gaveta";
+        drawer.value = new BigDecimal("50.00");
+        drawer.persist();
+
+        Product dresser = new Product();
+        dresser.name = "Cômoda";
+        dresser.value = new BigDecimal("900.00");
+        dresser.persist();
+
+        ProductRawMaterial drawerBom = new ProductRawMaterial();
+        drawerBom.id = new ProductRawMaterialId();
+        drawerBom.id.productId = drawer.id;
+        drawerBom.id.rawMaterialId = rm.id;
+        drawerBom.product = drawer;
+        drawerBom.rawMaterial = rm;
+        drawerBom.requiredQuantity = new BigDecimal("2.0000");
+        drawerBom.persist();
+
+        ProductRawMaterial dresserBom = new ProductRawMaterial();
+        dresserBom.id = new ProductRawMaterialId();
+        dresserBom.id.productId = dresser.id;
+        dresserBom.id.rawMaterialId = rm.id;
+        dresserBom.product = dresser;
+        dresserBom.rawMaterial = rm;
+        dresserBom.requiredQuantity = new BigDecimal("4.0000");
+        dresserBom.persist();
+
+        // 3 drawers per dresser: 4 + 3 × 2 = 10 planks per dresser
+        ProductComponent drawers = new ProductComponent();
+        drawers.id = new ProductComponentId();
+        drawers.id.productId = dresser.id;
+        drawers.id.componentId = drawer.id;
+        drawers.product = dresser;
+        drawers.component = drawer;
+        drawers.requiredQuantity = new BigDecimal("3.0000");
+        drawers.persist();
+    }
+
+    long statementsForFullPlan() {
+        service.invalidate();
+        Statistics statistics = sessionFactory.getStatistics();
+        statistics.clear();
+        callSuggest();
+        return statistics.getPrepareStatementCount();
+    }
+
     // --- Calls service.suggest() in a separate transaction ---
 
     @Transactional
@@ -162,6 +286,11 @@ class ProductionPlanningServiceTest {
         return service.suggest();
     }
 
+    @Transactional
+    ProductionSuggestionResponse callSuggestOptimal() {
+        return service.suggestOptimal();
+    }
+
     // --- Tests ---
 
     @Test
@@ -222,4 +351,57 @@ class ProductionPlanningServiceTest {
         ProductionSuggestionResponse result = callSuggest();
         assertEquals(4L, result.suggestions.get(0).producibleQuantity);
     }
+
+    @Test
+    void suggestOptimal_beatsGreedyOnSharedMaterial() {
+        setupGreedyTrap();
+        assertEquals(new BigDecimal("100.00"), callSuggest().grandTotalValue);
+
+        ProductionSuggestionResponse result = callSuggestOptimal();
+        long smallQty = result.suggestions.stream()
+                .filter(s -> s.productName.equals("Banqueta"))
+                .findFirst().orElseThrow().producibleQuantity;
+
+        assertEquals(2L, smallQty);
+        assertEquals(new BigDecimal("140.00"), result.grandTotalValue);
+        assertTrue(result.optimal);
+        assertEquals(0, BigDecimal.ZERO.compareTo(result.optimalityGap));
+    }
+
+    @Test
+    void suggestOptimal_matchesGreedyWhenGreedyIsOptimal() {
+        setupBottleneck();
+        ProductionSuggestionResponse result = callSuggestOptimal();
+        assertEquals(4L, result.suggestions.get(0).producibleQuantity);
+        assertEquals(new BigDecimal("5000.00"), result.grandTotalValue);
+    }
+
+    @Test
+    void suggest_loadsCatalogWithConstantStatementCount() {
+        setupCatalog(5);
+        long small = statementsForFullPlan();
+
+        setupCatalog(50);
+        long large = statementsForFullPlan();
+
+        assertEquals(small, large);
+        assertTrue(small <= 4, "expected one query per table, got " + small);
+    }
+
+    @Test
+    void suggest_explodesSubAssembliesIntoRawMaterials() {
+        setupSubAssembly();
+        ProductionSuggestionResponse result = callSuggest();
+
+        long dresserQty = result.suggestions.stream()
+                .filter(s -> s.productName.equals("Cômoda"))
+                .findFirst().orElseThrow().producibleQuantity;
+        long drawerQty = result.suggestions.stream()
+                .filter(s -> s.productName.equals("Gaveta"))
+                .findFirst().orElseThrow().producibleQuantity;
+
+        assertEquals(2L, dresserQty);
+        assertEquals(0L, drawerQty);
+        assertEquals(new BigDecimal("1800.00"), result.grandTotalValue);
+    }
 }
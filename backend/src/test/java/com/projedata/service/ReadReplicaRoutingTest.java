@@ -0,0 +1,67 @@
+package com.projedata.service;
+
+import com.projedata.service.replica.ReplicaRouter;
+import io.quarkus.test.junit.QuarkusTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+import io.restassured.http.ContentType;
+import jakarta.inject.Inject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Points the replica datasource at the Dev Services database, which is not a standby and so
+ * reports no lag: every {@code @ReadOnly} read goes through the replica path.
+ */
+@QuarkusTest
+@TestProfile(ReadReplicaRoutingTest.ReplicaProfile.class)
+class ReadReplicaRoutingTest {
+
+    public static class ReplicaProfile implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "catalog.read-replica.enabled", "true",
+                    "quarkus.datasource.replica.jdbc.url", "${quarkus.datasource.jdbc.url}",
+                    "quarkus.datasource.replica.username", "${quarkus.datasource.username}",
+                    "quarkus.datasource.replica.password", "${quarkus.datasource.password}",
+                    "catalog.read-replica.probe-interval", "0s");
+        }
+    }
+
+    @Inject
+    ReplicaRouter router;
+
+    @Test
+    void readsGoToTheReplicaAndSeeCommittedWrites() {
+        assertTrue(router.useReplica());
+
+        int id = given()
+            .contentType(ContentType.JSON)
+            .body("""
+                {"name": "Verniz", "stockQuantity": 12}
+                """)
+            .when().post("/api/raw-materials")
+            .then().statusCode(201)
+            .extract().jsonPath().getInt("id");
+        // The write moved the primary's WAL position; a server that is not a standby is always at it
+        assertTrue(router.useReplica());
+
+        given()
+            .when().get("/api/raw-materials/" + id)
+            .then()
+            .statusCode(200)
+            .body("name", equalTo("Verniz"));
+        given()
+            .when().get("/api/production-planning/suggestions")
+            .then()
+            .statusCode(200);
+
+        given().when().delete("/api/raw-materials/" + id).then().statusCode(204);
+    }
+}
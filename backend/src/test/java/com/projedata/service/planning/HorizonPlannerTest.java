@@ -0,0 +1,127 @@
+package com.projedata.service.planning;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plain unit test, no Quarkus: the sweep must give, period by period, exactly what a full greedy
+ * pass over the carried-over stock plus that period's receipts gives.
+ */
+class HorizonPlannerTest {
+
+    private static final int TRIALS = 200;
+
+    @Test
+    void plan_matchesAFullGreedyPassPerPeriod() {
+        for (long seed = 0; seed < TRIALS; seed++) {
+            Random random = new Random(seed);
+            PlanningModel model = randomModel(random);
+            HorizonPlanner.Receipts receipts = randomReceipts(random, model.materialCount());
+
+            List<HorizonPlanner.Period> periods = HorizonPlanner.plan(model, model.stock.clone(), receipts);
+            assertEquals(receipts.periods(), periods.size(), "seed " + seed);
+
+            long[] stock = model.stock.clone();
+            for (int t = 0; t < receipts.periods(); t++) {
+                for (int i = receipts.start()[t]; i < receipts.start()[t + 1]; i++) {
+                    stock[receipts.material()[i]] += receipts.quantity()[i];
+                }
+                long[] expected = new long[model.productCount()];
+                GreedyPlanner.allocate(model, stock, expected);
+
+                HorizonPlanner.Period period = periods.get(t);
+                long[] actual = new long[model.productCount()];
+                for (int k = 0; k < period.products().length; k++) {
+                    assertTrue(period.quantities()[k] > 0, "seed " + seed + ", period " + t + ": zero quantity listed");
+                    actual[period.products()[k]] = period.quantities()[k];
+                }
+                assertArrayEquals(expected, actual, "seed " + seed + ", period " + t);
+            }
+        }
+    }
+
+    @Test
+    void plan_appliesReceiptsInTheirPeriodOnly() {
+        // Product 0 needs 2 of material 0; product 1 needs 1 of material 0 and 3 of material 1
+        PlanningModel model = new PlanningModel(new long[] {1, 2}, new String[] {"Estante", "Mesa"},
+                new BigDecimal[] {new BigDecimal("500"), new BigDecimal("350")},
+                new int[] {0, 1, 3}, new int[] {0, 0, 1}, new long[] {2, 1, 3},
+                new long[] {10, 20}, new long[] {5, 0});
+        HorizonPlanner.Receipts receipts = HorizonPlanner.Receipts.of(3,
+                new int[] {2, 1}, new int[] {0, 1}, new long[] {4, 6});
+
+        List<HorizonPlanner.Period> periods = HorizonPlanner.plan(model, model.stock.clone(), receipts);
+
+        assertArrayEquals(new int[] {0}, periods.get(0).products());
+        assertArrayEquals(new long[] {2}, periods.get(0).quantities());
+        // The leftover unit of material 0 and the 6 of material 1 build one Mesa
+        assertArrayEquals(new int[] {1}, periods.get(1).products());
+        assertArrayEquals(new long[] {1}, periods.get(1).quantities());
+        // 4 of material 0 arrive: two more Estantes, nothing left for the second Mesa
+        assertArrayEquals(new int[] {0}, periods.get(2).products());
+        assertArrayEquals(new long[] {2}, periods.get(2).quantities());
+    }
+
+    /** Products in value order sharing a small pool of materials; about a quarter have no BOM. */
+    private static PlanningModel randomModel(Random random) {
+        int products = 1 + random.nextInt(300);
+        int materials = 1 + random.nextInt(60);
+        int maxFanOut = 1 + random.nextInt(Math.min(5, materials));
+
+        long[] productIds = new long[products];
+        String[] productNames = new String[products];
+        BigDecimal[] productValues = new BigDecimal[products];
+        int[] bomStart = new int[products + 1];
+        List<Integer> bomMaterial = new ArrayList<>();
+        List<Long> bomRequired = new ArrayList<>();
+        for (int p = 0; p < products; p++) {
+            productIds[p] = p + 1;
+            productNames[p] = "Produto " + p;
+            productValues[p] = BigDecimal.valueOf(products - p);
+            int fanOut = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(maxFanOut);
+            Set<Integer> used = new HashSet<>();
+            for (int i = 0; i < fanOut; i++) {
+                int m = random.nextInt(materials);
+                if (used.add(m)) {
+                    bomMaterial.add(m);
+                    bomRequired.add(1L + random.nextInt(50));
+                }
+            }
+            bomStart[p + 1] = bomMaterial.size();
+        }
+
+        long[] materialIds = new long[materials];
+        long[] stock = new long[materials];
+        for (int m = 0; m < materials; m++) {
+            materialIds[m] = m + 1;
+            stock[m] = random.nextInt(200);
+        }
+        return new PlanningModel(productIds, productNames, productValues, bomStart,
+                bomMaterial.stream().mapToInt(Integer::intValue).toArray(),
+                bomRequired.stream().mapToLong(Long::longValue).toArray(),
+                materialIds, stock);
+    }
+
+    /** Up to 52 periods; a material may receive several times in one period or in none. */
+    private static HorizonPlanner.Receipts randomReceipts(Random random, int materials) {
+        int periods = 1 + random.nextInt(52);
+        int count = random.nextInt(100);
+        int[] period = new int[count];
+        int[] material = new int[count];
+        long[] quantity = new long[count];
+        for (int i = 0; i < count; i++) {
+            period[i] = random.nextInt(periods);
+            material[i] = random.nextInt(materials);
+            quantity[i] = 1 + random.nextInt(100);
+        }
+        return HorizonPlanner.Receipts.of(periods, period, material, quantity);
+    }
+}
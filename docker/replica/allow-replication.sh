@@ -0,0 +1,3 @@
+#!/bin/sh
+# Permite que a réplica faça streaming replication a partir do primário
+echo "host replication all all scram-sha-256" >> "$PGDATA/pg_hba.conf"